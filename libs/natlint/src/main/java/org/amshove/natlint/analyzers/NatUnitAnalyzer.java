@@ -5,7 +5,6 @@ import org.amshove.natlint.api.DiagnosticDescription;
 import org.amshove.natlint.api.IAnalyzeContext;
 import org.amshove.natlint.api.ILinterContext;
 import org.amshove.natparse.DiagnosticSeverity;
-import org.amshove.natparse.NodeUtil;
 import org.amshove.natparse.ReadOnlyList;
 import org.amshove.natparse.natural.*;
 import org.amshove.natparse.natural.conditionals.IRelationalCriteriaNode;
@@ -77,7 +76,7 @@ public class NatUnitAnalyzer extends AbstractAnalyzer
 			return;
 		}
 
-		if (!(NodeUtil.findFirstParentOfType(ifStatement, ISubroutineNode.class)instanceof ISubroutineNode subroutine)
+		if (!(context.findAncestor(ISubroutineNode.class)instanceof ISubroutineNode subroutine)
 			|| !subroutine.declaration().symbolName().equalsIgnoreCase("TEST"))
 		{
 			context.report(TEST_CASE_NOT_IN_TEST_ROUTINE.createDiagnostic(ifStatement));
@@ -5,7 +5,6 @@ import org.amshove.natlint.api.DiagnosticDescription;
 import org.amshove.natlint.api.IAnalyzeContext;
 import org.amshove.natlint.api.ILinterContext;
 import org.amshove.natparse.DiagnosticSeverity;
-import org.amshove.natparse.NodeUtil;
 import org.amshove.natparse.ReadOnlyList;
 import org.amshove.natparse.natural.IIgnoreNode;
 import org.amshove.natparse.natural.IStatementListNode;
@@ -35,7 +34,7 @@ public class UnnecessaryIgnoreAnalyzer extends AbstractAnalyzer
 	{
 		var ignore = (IIgnoreNode) node;
 
-		if (!(NodeUtil.findFirstParentOfType(ignore, IStatementListNode.class)instanceof IStatementListNode parent))
+		if (!(context.findAncestor(IStatementListNode.class)instanceof IStatementListNode parent))
 		{
 			return;
 		}
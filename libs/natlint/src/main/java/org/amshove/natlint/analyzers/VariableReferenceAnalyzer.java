@@ -7,6 +7,11 @@ import org.amshove.natparse.NodeUtil;
 import org.amshove.natparse.ReadOnlyList;
 import org.amshove.natparse.natural.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class VariableReferenceAnalyzer extends AbstractAnalyzer
 {
 	public static final DiagnosticDescription UNUSED_VARIABLE = DiagnosticDescription.create(
@@ -25,6 +30,9 @@ public class VariableReferenceAnalyzer extends AbstractAnalyzer
 		DiagnosticSeverity.WARNING
 	);
 
+	// Checked after the module has been walked, when the usage of every reference is known
+	private final Map<INaturalModule, List<IVariableNode>> variablesToCheckForMutations = new ConcurrentHashMap<>();
+
 	@Override
 	public ReadOnlyList<DiagnosticDescription> getDiagnosticDescriptions()
 	{
@@ -37,6 +45,21 @@ public class VariableReferenceAnalyzer extends AbstractAnalyzer
 		context.registerNodeAnalyzer(IVariableNode.class, this::analyzeVariable);
 	}
 
+	@Override
+	public void afterAnalyzing(IAnalyzeContext context)
+	{
+		var variables = variablesToCheckForMutations.remove(context.getModule());
+		if (variables == null)
+		{
+			return;
+		}
+
+		for (var variable : variables)
+		{
+			checkIfVariableIsMutatedOnly(variable, context);
+		}
+	}
+
 	private void analyzeVariable(ISyntaxNode syntaxNode, IAnalyzeContext context)
 	{
 		if (context.isIncludableFileType())
@@ -66,7 +89,7 @@ public class VariableReferenceAnalyzer extends AbstractAnalyzer
 			}
 		}
 
-		checkIfVariableIsMutatedOnly(variable, context);
+		variablesToCheckForMutations.computeIfAbsent(context.getModule(), m -> new ArrayList<>()).add(variable);
 	}
 
 	private void checkIfVariableIsMutatedOnly(IVariableNode variable, IAnalyzeContext context)
@@ -102,7 +125,7 @@ public class VariableReferenceAnalyzer extends AbstractAnalyzer
 				}
 			}
 
-			if (NodeUtil.findFirstParentOfType(variable, IRedefinitionNode.class)instanceof IRedefinitionNode redefine && !redefine.reference()
+			if (variable.enclosingContext().redefinition()instanceof IRedefinitionNode redefine && !redefine.reference()
 				.references().isEmpty())
 			{
 				return;
@@ -115,11 +138,7 @@ public class VariableReferenceAnalyzer extends AbstractAnalyzer
 			// We only look for common cases where you remove reads to a variable but forget writes, like RESET,
 			// which would then prevent you from knowing that you can clean up the variable.
 
-			var isReset = NodeUtil.findFirstParentOfType(reference, IResetStatementNode.class) != null;
-			var isAssigned = NodeUtil.findFirstParentOfType(reference, IAssignmentStatementNode.class)instanceof IAssignmentStatementNode assignment && assignment.target() == reference
-				|| NodeUtil.findFirstParentOfType(reference, IAssignStatementNode.class)instanceof IAssignmentStatementNode assign && assign.target() == reference;
-
-			if (!isAssigned && !isReset)
+			if (!context.referenceUsage(reference).isModifying())
 			{
 				return;
 			}
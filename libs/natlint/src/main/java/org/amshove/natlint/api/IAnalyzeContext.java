@@ -1,6 +1,8 @@
 package org.amshove.natlint.api;
 
 import org.amshove.natparse.natural.INaturalModule;
+import org.amshove.natparse.natural.ISymbolReferenceNode;
+import org.amshove.natparse.natural.ISyntaxNode;
 import org.amshove.natparse.natural.project.NaturalFile;
 import org.amshove.natparse.natural.project.NaturalFileType;
 
@@ -16,6 +18,20 @@ public interface IAnalyzeContext
 	 */
 	String getConfiguration(NaturalFile forFile, String property, String defaultValue);
 
+	/**
+	 * Returns the closest ancestor with the given type of the node that is currently being analyzed, or null if there
+	 * is none.<br/>
+	 * The ancestors are tracked while walking the tree, so this is cheaper than walking up the parents of the node.
+	 */
+	<T extends ISyntaxNode> T findAncestor(Class<T> type);
+
+	/**
+	 * Returns how the given reference uses its variable.<br/>
+	 * References within the analyzed module are classified while walking the tree, which makes this a lookup once the
+	 * module has been walked, e.g. in {@link AbstractAnalyzer#afterAnalyzing(IAnalyzeContext)}.
+	 */
+	ReferenceUsage referenceUsage(ISymbolReferenceNode reference);
+
 	/**
 	 * Determines whether the file that is currently being analyzed has one of the specified types.
 	 */
@@ -0,0 +1,72 @@
+package org.amshove.natlint.api;
+
+import org.amshove.natparse.natural.IAssignStatementNode;
+import org.amshove.natparse.natural.IAssignmentStatementNode;
+import org.amshove.natparse.natural.IResetStatementNode;
+import org.amshove.natparse.natural.ISymbolReferenceNode;
+import org.amshove.natparse.natural.ISyntaxNode;
+
+import java.util.ArrayList;
+
+/**
+ * Describes how a variable is used by one of its references.<br/>
+ * Only common cases of writes are recognized, every other reference is considered to be a read.
+ */
+public enum ReferenceUsage
+{
+	READ,
+	ASSIGNED,
+	RESET;
+
+	public boolean isModifying()
+	{
+		return this != READ;
+	}
+
+	/**
+	 * Classifies the reference by walking up its parents.
+	 */
+	public static ReferenceUsage of(ISymbolReferenceNode reference)
+	{
+		var parents = new ArrayList<ISyntaxNode>();
+		var current = reference.parent();
+		while (current != null)
+		{
+			parents.add(current);
+			current = current.parent();
+		}
+
+		return of(reference, parents);
+	}
+
+	/**
+	 * Classifies the reference with the given ancestors, starting with the closest one.
+	 */
+	public static ReferenceUsage of(ISymbolReferenceNode reference, Iterable<ISyntaxNode> ancestors)
+	{
+		var isAssigned = false;
+		var checkAssignment = true;
+		var checkAssign = true;
+		for (var ancestor : ancestors)
+		{
+			if (ancestor instanceof IResetStatementNode)
+			{
+				return RESET;
+			}
+
+			if (checkAssignment && ancestor instanceof IAssignmentStatementNode assignment)
+			{
+				isAssigned |= assignment.target() == reference;
+				checkAssignment = false;
+			}
+
+			if (checkAssign && ancestor instanceof IAssignStatementNode)
+			{
+				isAssigned |= ancestor instanceof IAssignmentStatementNode assign && assign.target() == reference;
+				checkAssign = false;
+			}
+		}
+
+		return isAssigned ? ASSIGNED : READ;
+	}
+}
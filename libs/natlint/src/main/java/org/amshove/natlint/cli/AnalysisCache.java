@@ -0,0 +1,351 @@
+package org.amshove.natlint.cli;
+
+import org.amshove.natparse.AdditionalDiagnosticInfo;
+import org.amshove.natparse.DiagnosticSeverity;
+import org.amshove.natparse.IDiagnostic;
+import org.amshove.natparse.IPosition;
+import org.amshove.natparse.ReadOnlyList;
+import org.amshove.natparse.infrastructure.ISourceProvider;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the diagnostics of analyzed modules between runs in a versioned binary file.<br/>
+ * An entry is reused as long as the module and every source that has been read while analyzing it (data areas,
+ * copycodes, DDMs, ...) have the same content hash. Everything else a result depends on, like the natlint version, the
+ * .editorconfig or the set of files in the project, is part of the fingerprint which invalidates the whole cache.
+ */
+class AnalysisCache
+{
+	private static final int MAGIC = 0x4E41_5443; // NATC
+	private static final int FORMAT_VERSION = 1;
+
+	private final Path cacheFile;
+	private final String fingerprint;
+	private final Map<Path, CachedAnalysis> analyses = new ConcurrentHashMap<>();
+	private final AtomicInteger hits = new AtomicInteger();
+
+	private AnalysisCache(Path cacheFile, String fingerprint)
+	{
+		this.cacheFile = cacheFile;
+		this.fingerprint = fingerprint;
+	}
+
+	/**
+	 * Loads the cache from the given file. Returns an empty cache if the file doesn't exist, can't be read or has been
+	 * written for another fingerprint or format version.
+	 */
+	static AnalysisCache load(Path cacheFile, String fingerprint)
+	{
+		var cache = new AnalysisCache(cacheFile, fingerprint);
+		if (!Files.exists(cacheFile))
+		{
+			return cache;
+		}
+
+		try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile))))
+		{
+			if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION || !input.readUTF().equals(fingerprint))
+			{
+				return cache;
+			}
+
+			var entries = input.readInt();
+			for (var i = 0; i < entries; i++)
+			{
+				var module = Path.of(input.readUTF());
+				cache.analyses.put(module, readAnalysis(input));
+			}
+		}
+		catch (IOException | RuntimeException e)
+		{
+			System.err.printf("Ignoring unreadable analysis cache %s: %s%n", cacheFile, e.getMessage());
+			cache.analyses.clear();
+		}
+
+		return cache;
+	}
+
+	/**
+	 * Returns the cached analysis of the module if none of the sources it depends on have changed.
+	 */
+	CachedAnalysis lookup(Path module, ISourceProvider sources)
+	{
+		var analysis = analyses.get(module);
+		if (analysis == null)
+		{
+			return null;
+		}
+
+		for (var dependency : analysis.sourceHashes().entrySet())
+		{
+			try
+			{
+				if (!Arrays.equals(dependency.getValue(), hash(sources.readSource(dependency.getKey()))))
+				{
+					return null;
+				}
+			}
+			catch (UncheckedIOException e)
+			{
+				return null;
+			}
+		}
+
+		hits.incrementAndGet();
+		return analysis;
+	}
+
+	/**
+	 * Caches the analysis of the module.
+	 *
+	 * @param readSources every source that has been read to analyze the module, including the module itself
+	 */
+	void store(
+		Path module, Map<Path, String> readSources, int linesOfCode,
+		ReadOnlyList<? extends IDiagnostic> lexDiagnostics,
+		ReadOnlyList<? extends IDiagnostic> parseDiagnostics,
+		ReadOnlyList<? extends IDiagnostic> lintDiagnostics
+	)
+	{
+		var sourceHashes = new LinkedHashMap<Path, byte[]>();
+		readSources.forEach((path, source) -> sourceHashes.put(path, hash(source)));
+		analyses.put(
+			module,
+			new CachedAnalysis(
+				sourceHashes,
+				linesOfCode,
+				copy(lexDiagnostics),
+				copy(parseDiagnostics),
+				lintDiagnostics != null ? copy(lintDiagnostics) : null
+			)
+		);
+	}
+
+	void save()
+	{
+		try
+		{
+			var parent = cacheFile.toAbsolutePath().getParent();
+			if (parent != null)
+			{
+				Files.createDirectories(parent);
+			}
+
+			try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(cacheFile))))
+			{
+				output.writeInt(MAGIC);
+				output.writeInt(FORMAT_VERSION);
+				output.writeUTF(fingerprint);
+				var snapshot = new ArrayList<>(analyses.entrySet());
+				output.writeInt(snapshot.size());
+				for (var entry : snapshot)
+				{
+					output.writeUTF(entry.getKey().toString());
+					writeAnalysis(output, entry.getValue());
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			System.err.printf("Could not write analysis cache %s: %s%n", cacheFile, e.getMessage());
+		}
+	}
+
+	int hits()
+	{
+		return hits.get();
+	}
+
+	static byte[] hash(String content)
+	{
+		try
+		{
+			return MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static ReadOnlyList<IDiagnostic> copy(ReadOnlyList<? extends IDiagnostic> diagnostics)
+	{
+		var copies = new ArrayList<IDiagnostic>(diagnostics.size());
+		for (var diagnostic : diagnostics)
+		{
+			var additionalInfo = new ArrayList<AdditionalDiagnosticInfo>();
+			for (var info : diagnostic.additionalInfo())
+			{
+				additionalInfo.add(new AdditionalDiagnosticInfo(info.message(), CachedPosition.of(info.position())));
+			}
+
+			copies.add(
+				new CachedDiagnostic(
+					diagnostic.id(),
+					diagnostic.message(),
+					diagnostic.severity(),
+					CachedPosition.of(diagnostic),
+					ReadOnlyList.from(additionalInfo)
+				)
+			);
+		}
+		return ReadOnlyList.from(copies);
+	}
+
+	private static void writeAnalysis(DataOutputStream output, CachedAnalysis analysis) throws IOException
+	{
+		output.writeInt(analysis.sourceHashes().size());
+		for (var dependency : analysis.sourceHashes().entrySet())
+		{
+			output.writeUTF(dependency.getKey().toString());
+			output.writeShort(dependency.getValue().length);
+			output.write(dependency.getValue());
+		}
+
+		output.writeInt(analysis.linesOfCode());
+		writeDiagnostics(output, analysis.lexDiagnostics());
+		writeDiagnostics(output, analysis.parseDiagnostics());
+		output.writeBoolean(analysis.lintDiagnostics() != null);
+		if (analysis.lintDiagnostics() != null)
+		{
+			writeDiagnostics(output, analysis.lintDiagnostics());
+		}
+	}
+
+	private static CachedAnalysis readAnalysis(DataInputStream input) throws IOException
+	{
+		var dependencies = input.readInt();
+		var sourceHashes = new LinkedHashMap<Path, byte[]>();
+		for (var i = 0; i < dependencies; i++)
+		{
+			var path = Path.of(input.readUTF());
+			var hash = new byte[input.readShort()];
+			input.readFully(hash);
+			sourceHashes.put(path, hash);
+		}
+
+		var linesOfCode = input.readInt();
+		var lexDiagnostics = readDiagnostics(input);
+		var parseDiagnostics = readDiagnostics(input);
+		var lintDiagnostics = input.readBoolean() ? readDiagnostics(input) : null;
+		return new CachedAnalysis(sourceHashes, linesOfCode, lexDiagnostics, parseDiagnostics, lintDiagnostics);
+	}
+
+	private static void writeDiagnostics(DataOutputStream output, ReadOnlyList<IDiagnostic> diagnostics) throws IOException
+	{
+		output.writeInt(diagnostics.size());
+		for (var diagnostic : diagnostics)
+		{
+			output.writeUTF(diagnostic.id());
+			output.writeUTF(diagnostic.message());
+			output.writeByte(diagnostic.severity().ordinal());
+			writePosition(output, diagnostic);
+			output.writeInt(diagnostic.additionalInfo().size());
+			for (var info : diagnostic.additionalInfo())
+			{
+				output.writeUTF(info.message());
+				writePosition(output, info.position());
+			}
+		}
+	}
+
+	private static ReadOnlyList<IDiagnostic> readDiagnostics(DataInputStream input) throws IOException
+	{
+		var count = input.readInt();
+		var diagnostics = new ArrayList<IDiagnostic>(count);
+		for (var i = 0; i < count; i++)
+		{
+			var id = input.readUTF();
+			var message = input.readUTF();
+			var severity = DiagnosticSeverity.values()[input.readByte()];
+			var position = readPosition(input);
+			var additionalInfoCount = input.readInt();
+			var additionalInfo = new ArrayList<AdditionalDiagnosticInfo>(additionalInfoCount);
+			for (var j = 0; j < additionalInfoCount; j++)
+			{
+				additionalInfo.add(new AdditionalDiagnosticInfo(input.readUTF(), readPosition(input)));
+			}
+			diagnostics.add(new CachedDiagnostic(id, message, severity, position, ReadOnlyList.from(additionalInfo)));
+		}
+		return ReadOnlyList.from(diagnostics);
+	}
+
+	private static void writePosition(DataOutputStream output, IPosition position) throws IOException
+	{
+		output.writeInt(position.offset());
+		output.writeInt(position.offsetInLine());
+		output.writeInt(position.line());
+		output.writeInt(position.length());
+		output.writeUTF(position.filePath().toString());
+	}
+
+	private static CachedPosition readPosition(DataInputStream input) throws IOException
+	{
+		return new CachedPosition(input.readInt(), input.readInt(), input.readInt(), input.readInt(), Path.of(input.readUTF()));
+	}
+
+	record CachedAnalysis(
+		Map<Path, byte[]> sourceHashes,
+		int linesOfCode,
+		ReadOnlyList<IDiagnostic> lexDiagnostics,
+		ReadOnlyList<IDiagnostic> parseDiagnostics,
+		ReadOnlyList<IDiagnostic> lintDiagnostics
+	)
+	{}
+
+	private record CachedPosition(int offset, int offsetInLine, int line, int length, Path filePath) implements IPosition
+	{
+		static CachedPosition of(IPosition position)
+		{
+			return new CachedPosition(position.offset(), position.offsetInLine(), position.line(), position.length(), position.filePath());
+		}
+	}
+
+	private record CachedDiagnostic(
+		String id, String message, DiagnosticSeverity severity, CachedPosition position,
+		ReadOnlyList<AdditionalDiagnosticInfo> additionalInfo
+	) implements IDiagnostic
+	{
+		@Override
+		public int offset()
+		{
+			return position.offset();
+		}
+
+		@Override
+		public int offsetInLine()
+		{
+			return position.offsetInLine();
+		}
+
+		@Override
+		public int line()
+		{
+			return position.line();
+		}
+
+		@Override
+		public int length()
+		{
+			return position.length();
+		}
+
+		@Override
+		public Path filePath()
+		{
+			return position.filePath();
+		}
+	}
+}
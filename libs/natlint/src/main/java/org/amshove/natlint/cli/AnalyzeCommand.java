@@ -92,6 +92,12 @@ public class AnalyzeCommand implements Callable<Integer>
 	}, description = "Show total diagnostics by ID", defaultValue = "false")
 	boolean showDiagnosticStats;
 
+	@CommandLine.Option(names =
+	{
+		"--cache"
+	}, description = "Reuses the results of modules that didn't change, including their dependencies, since the last run with the same cache file")
+	String cacheFile;
+
 	private AnalyzerPredicates predicates;
 	private AnalyzerOutputFlags outputFlags;
 
@@ -213,7 +219,8 @@ public class AnalyzeCommand implements Callable<Integer>
 			fileStatusMode ? FileStatusSink.create() : FileStatusSink.dummy(),
 			predicates,
 			disableLinting,
-			outputFlags
+			outputFlags,
+			cacheFile != null ? Paths.get(cacheFile) : null
 		);
 	}
 
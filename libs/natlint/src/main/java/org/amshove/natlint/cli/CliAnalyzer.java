@@ -13,6 +13,9 @@ import org.amshove.natlint.linter.NaturalLinter;
 import org.amshove.natparse.IDiagnostic;
 import org.amshove.natparse.ReadOnlyList;
 import org.amshove.natparse.infrastructure.ActualFilesystem;
+import org.amshove.natparse.infrastructure.CachingSourceProvider;
+import org.amshove.natparse.infrastructure.ISourceProvider;
+import org.amshove.natparse.infrastructure.RecordingSourceProvider;
 import org.amshove.natparse.lexing.Lexer;
 import org.amshove.natparse.lexing.TokenList;
 import org.amshove.natparse.natural.INaturalModule;
@@ -24,6 +27,7 @@ import java.lang.management.ManagementFactory;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -31,6 +35,7 @@ import java.util.concurrent.atomic.AtomicLong;
 public class CliAnalyzer
 {
 	private final ActualFilesystem filesystem;
+	private final CachingSourceProvider sourceProvider = new CachingSourceProvider();
 	private final IDiagnosticSink diagnosticSink;
 	private final boolean disableLinting;
 	private Path workingDirectory;
@@ -38,8 +43,14 @@ public class CliAnalyzer
 	private final FileStatusSink fileStatusSink;
 	private final AnalyzerOutputFlags outputFlags;
 	private Map<String, AtomicInteger> totalDiagnosticsById = new HashMap<>();
-
-	public CliAnalyzer(Path workingDirectory, IDiagnosticSink sink, FileStatusSink fileStatusSink, AnalyzerPredicates predicates, boolean disableLinting, AnalyzerOutputFlags outputFlags)
+	private final Path analysisCacheFile;
+	private AnalysisCache analysisCache;
+
+	/**
+	 * @param analysisCacheFile file to keep the analysis results of unchanged modules in between runs, or {@code null}
+	 *            to analyze every module
+	 */
+	public CliAnalyzer(Path workingDirectory, IDiagnosticSink sink, FileStatusSink fileStatusSink, AnalyzerPredicates predicates, boolean disableLinting, AnalyzerOutputFlags outputFlags, Path analysisCacheFile)
 	{
 		this.workingDirectory = workingDirectory;
 		this.predicates = predicates;
@@ -48,6 +59,7 @@ public class CliAnalyzer
 		this.fileStatusSink = fileStatusSink;
 		this.disableLinting = disableLinting;
 		this.outputFlags = outputFlags;
+		this.analysisCacheFile = analysisCacheFile;
 	}
 
 	public int run()
@@ -109,9 +121,14 @@ public class CliAnalyzer
 	{
 		var indexStartTime = System.currentTimeMillis();
 		var project = new BuildFileProjectReader(filesystem).getNaturalProject(projectFilePath);
-		new NaturalProjectFileIndexer().indexProject(project);
+		var indexingTimings = new NaturalProjectFileIndexer().indexProject(project);
 		var indexEndTime = System.currentTimeMillis();
 
+		if (analysisCacheFile != null)
+		{
+			analysisCache = AnalysisCache.load(analysisCacheFile, cacheFingerprint(project, projectFilePath));
+		}
+
 		var startCheck = System.currentTimeMillis();
 		for (var library : project.getLibraries())
 		{
@@ -138,34 +155,16 @@ public class CliAnalyzer
 				filesChecked.incrementAndGet();
 				var allDiagnosticsInFile = new ArrayList<IDiagnostic>();
 
-				var tokens = lex(file, allDiagnosticsInFile);
-				if (tokens == null)
-				{
-					return;
-				}
-
-				var module = parse(file, tokens, allDiagnosticsInFile);
-				if (module == null)
-				{
-					diagnosticSink.printDiagnostics(filesChecked.get(), file.getPath(), allDiagnosticsInFile);
-					return;
-				}
-
-				if (tokens.sourceHeader().getProgrammingMode() == NaturalProgrammingMode.REPORTING)
+				var cachedAnalysis = analysisCache != null ? analysisCache.lookup(file.getPath(), sourceProvider) : null;
+				if (cachedAnalysis != null)
 				{
-					fileStatusSink.printStatus(file.getPath(), MessageType.REPORTING_TYPE);
-					diagnosticSink.printDiagnostics(filesChecked.get(), file.getPath(), allDiagnosticsInFile);
-					return;
+					replay(file, cachedAnalysis, allDiagnosticsInFile);
 				}
-
-				if (!disableLinting && module.programmingMode() != NaturalProgrammingMode.REPORTING)
-				{
-					var linterDiagnostics = lint(file, module, allDiagnosticsInFile);
-					if (linterDiagnostics == null)
+				else
+					if (!analyzeFile(file, allDiagnosticsInFile))
 					{
 						return;
 					}
-				}
 
 				var totalDiagnosticsInFileById = allDiagnosticsInFile.stream()
 					.collect(Collectors.groupingBy(IDiagnostic::id, Collectors.counting()));
@@ -192,6 +191,11 @@ public class CliAnalyzer
 
 		var endCheck = System.currentTimeMillis();
 
+		if (analysisCache != null)
+		{
+			analysisCache.save();
+		}
+
 		var missingStartTime = System.currentTimeMillis();
 		registerMissingFiles(project);
 		var missingEndTime = System.currentTimeMillis();
@@ -205,11 +209,18 @@ public class CliAnalyzer
 		System.out.println();
 		System.out.println("Done.");
 		System.out.printf("Index time: %d ms%n", indexTime);
+		System.out.printf("  Listing      : %d ms%n", indexingTimings.listing().toMillis());
+		System.out.printf("  Name scanning: %d ms%n", indexingTimings.nameScanning().toMillis());
+		System.out.printf("  Registering  : %d ms%n", indexingTimings.registering().toMillis());
 		System.out.printf("Check time: %d ms%n", checkTime);
 		System.out.printf("Miss time : %d ms%n", missTime);
 		System.out.printf("Total: %d ms (%ds)%n", totalTime, totalTimeSeconds);
 		System.out.println();
 		System.out.printf("Files checked: %,d%n", filesChecked.get());
+		if (analysisCache != null)
+		{
+			System.out.printf("Reused from cache: %,d%n", analysisCache.hits());
+		}
 		System.out.printf("Lines of code: %,d%n", linesOfCode.get());
 		System.out.printf("LoC/s: %,d%n", totalTimeSeconds > 0 ? (linesOfCode.get() / totalTimeSeconds) : linesOfCode.get());
 		System.out.println();
@@ -247,20 +258,142 @@ public class CliAnalyzer
 		return totalDiagnostics.get() > 0 ? 1 : 0;
 	}
 
+	/**
+	 * Everything besides the sources read during analysis that diagnostics depend on.<br/>
+	 * Unresolved references don't record a dependency, so the referable name and type of every module are part of the
+	 * fingerprint. Adding, removing or renaming any module invalidates the cache, because previously unresolved
+	 * references might resolve now.
+	 */
+	private String cacheFingerprint(NaturalProject project, Path projectFilePath)
+	{
+		var fingerprint = new StringBuilder();
+		fingerprint.append(buildVersion()).append('\n');
+		fingerprint.append(disableLinting).append('\n');
+		// Libraries and steplibs are configured in the project file
+		fingerprint.append(filesystem.readFile(projectFilePath)).append('\n');
+		var editorconfigPath = projectFilePath.getParent().resolve(".editorconfig");
+		if (editorconfigPath.toFile().exists())
+		{
+			fingerprint.append(filesystem.readFile(editorconfigPath));
+		}
+		project.getLibraries().stream()
+			.flatMap(l -> l.files().stream())
+			.map(f -> f.getPath() + "|" + f.getReferableName() + "|" + f.getFiletype())
+			.sorted()
+			.forEach(m -> fingerprint.append(m).append('\n'));
+
+		return HexFormat.of().formatHex(AnalysisCache.hash(fingerprint.toString()));
+	}
+
+	/**
+	 * The implementation version of natlint. Development builds have none, they're identified by the size and
+	 * modification time of the jar or class files instead, so that every rebuild invalidates the cache.
+	 */
+	private static String buildVersion()
+	{
+		var implementationVersion = CliAnalyzer.class.getPackage().getImplementationVersion();
+		if (implementationVersion != null)
+		{
+			return implementationVersion;
+		}
+
+		try
+		{
+			var codeSource = Path.of(CliAnalyzer.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+			try (var files = Files.walk(codeSource))
+			{
+				return files
+					.filter(Files::isRegularFile)
+					.map(f -> f.toFile().length() + "@" + f.toFile().lastModified())
+					.sorted()
+					.collect(Collectors.joining(","));
+			}
+		}
+		catch (Exception e)
+		{
+			// Without a way to tell builds apart, don't reuse results of another build
+			return "unknown-build-" + System.nanoTime();
+		}
+	}
+
+	/**
+	 * Lexes, parses and lints the file.
+	 *
+	 * @return false if the analysis has been aborted and the diagnostics have already been reported
+	 */
+	private boolean analyzeFile(NaturalFile file, ArrayList<IDiagnostic> allDiagnosticsInFile)
+	{
+		var sources = new RecordingSourceProvider(sourceProvider);
+		var tokens = lex(file, sources, allDiagnosticsInFile);
+		if (tokens == null)
+		{
+			return false;
+		}
+
+		var module = parse(file, tokens, sources, allDiagnosticsInFile);
+		if (module == null)
+		{
+			diagnosticSink.printDiagnostics(filesChecked.get(), file.getPath(), allDiagnosticsInFile);
+			return false;
+		}
+
+		if (tokens.sourceHeader().getProgrammingMode() == NaturalProgrammingMode.REPORTING)
+		{
+			fileStatusSink.printStatus(file.getPath(), MessageType.REPORTING_TYPE);
+			diagnosticSink.printDiagnostics(filesChecked.get(), file.getPath(), allDiagnosticsInFile);
+			return false;
+		}
+
+		ReadOnlyList<LinterDiagnostic> linterDiagnostics = null;
+		if (!disableLinting && module.programmingMode() != NaturalProgrammingMode.REPORTING)
+		{
+			linterDiagnostics = lint(file, module, allDiagnosticsInFile);
+			if (linterDiagnostics == null)
+			{
+				return false;
+			}
+		}
+
+		if (analysisCache != null)
+		{
+			analysisCache.store(file.getPath(), sources.readSources(), countLinesOfCode(tokens), tokens.diagnostics(), module.diagnostics(), linterDiagnostics);
+		}
+
+		return true;
+	}
+
+	private void replay(NaturalFile file, AnalysisCache.CachedAnalysis cachedAnalysis, ArrayList<IDiagnostic> allDiagnosticsInFile)
+	{
+		linesOfCode.addAndGet(cachedAnalysis.linesOfCode());
+		replay(file, MessageType.LEX_FAILED, cachedAnalysis.lexDiagnostics(), allDiagnosticsInFile);
+		replay(file, MessageType.PARSE_FAILED, cachedAnalysis.parseDiagnostics(), allDiagnosticsInFile);
+		if (cachedAnalysis.lintDiagnostics() != null)
+		{
+			replay(file, MessageType.LINT_FAILED, cachedAnalysis.lintDiagnostics(), allDiagnosticsInFile);
+		}
+	}
+
+	private void replay(NaturalFile file, MessageType messageType, ReadOnlyList<IDiagnostic> cachedDiagnostics, ArrayList<IDiagnostic> allDiagnosticsInFile)
+	{
+		var diagnostics = filterDiagnostics(cachedDiagnostics);
+		fileStatusSink.printDiagnostics(file.getPath(), messageType, diagnostics);
+		allDiagnosticsInFile.addAll(diagnostics);
+	}
+
 	private List<? extends IDiagnostic> filterDiagnostics(ReadOnlyList<? extends IDiagnostic> diagnostics)
 	{
 		return diagnostics.stream().filter(predicates::shouldPrintDiagnostic).toList();
 	}
 
-	private TokenList lex(NaturalFile file, ArrayList<IDiagnostic> allDiagnosticsInFile)
+	private TokenList lex(NaturalFile file, ISourceProvider sources, ArrayList<IDiagnostic> allDiagnosticsInFile)
 	{
 		try
 		{
 			var lexer = new Lexer();
 			var lexStart = System.currentTimeMillis();
-			var tokens = lexer.lex(filesystem.readFile(file.getPath()), file.getPath());
+			var tokens = lexer.lex(sources.readSource(file.getPath()), file.getPath());
 			var lexEnd = System.currentTimeMillis();
-			countLinesOfCode(tokens);
+			linesOfCode.addAndGet(countLinesOfCode(tokens));
 			if (slowestLexedModule.milliseconds < lexEnd - lexStart)
 			{
 				slowestLexedModule = new SlowestModule(lexEnd - lexStart, file.getProjectRelativePath().toString());
@@ -281,7 +414,7 @@ public class CliAnalyzer
 		}
 	}
 
-	private void countLinesOfCode(TokenList tokens)
+	private int countLinesOfCode(TokenList tokens)
 	{
 		var previousLine = -1;
 		var totalLines = 0;
@@ -294,14 +427,14 @@ public class CliAnalyzer
 			}
 		}
 
-		linesOfCode.addAndGet(totalLines);
+		return totalLines;
 	}
 
-	private INaturalModule parse(NaturalFile file, TokenList tokens, ArrayList<IDiagnostic> allDiagnosticsInFile)
+	private INaturalModule parse(NaturalFile file, TokenList tokens, ISourceProvider sources, ArrayList<IDiagnostic> allDiagnosticsInFile)
 	{
 		try
 		{
-			var parser = new NaturalParser();
+			var parser = NaturalParser.withSourceProvider(sources);
 			var parseStart = System.currentTimeMillis();
 			var module = parser.parse(file, tokens);
 			var parseEnd = System.currentTimeMillis();
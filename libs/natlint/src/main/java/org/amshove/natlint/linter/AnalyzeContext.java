@@ -3,16 +3,25 @@ package org.amshove.natlint.linter;
 import org.amshove.natlint.api.IAnalyzeContext;
 import org.amshove.natlint.api.IDiagnosticReporter;
 import org.amshove.natlint.api.LinterDiagnostic;
+import org.amshove.natlint.api.ReferenceUsage;
 import org.amshove.natlint.editorconfig.EditorConfig;
 import org.amshove.natparse.DiagnosticSeverity;
 import org.amshove.natparse.natural.INaturalModule;
+import org.amshove.natparse.natural.ISymbolReferenceNode;
+import org.amshove.natparse.natural.ISyntaxNode;
 import org.amshove.natparse.natural.project.NaturalFile;
 
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 class AnalyzeContext implements IAnalyzeContext
 {
 	private final INaturalModule module;
 	private final IDiagnosticReporter diagnosticReporter;
 	private EditorConfig editorConfig;
+	private final ArrayDeque<ISyntaxNode> ancestors = new ArrayDeque<>();
+	private final Map<ISymbolReferenceNode, ReferenceUsage> referenceUsages = new IdentityHashMap<>();
 
 	AnalyzeContext(INaturalModule module, IDiagnosticReporter diagnosticReporter)
 	{
@@ -25,6 +34,43 @@ class AnalyzeContext implements IAnalyzeContext
 		this.editorConfig = editorConfig;
 	}
 
+	void enter(ISyntaxNode node)
+	{
+		ancestors.push(node);
+	}
+
+	void leave()
+	{
+		ancestors.pop();
+	}
+
+	void classifyReference(ISymbolReferenceNode reference)
+	{
+		referenceUsages.put(reference, ReferenceUsage.of(reference, ancestors));
+	}
+
+	@Override
+	public <T extends ISyntaxNode> T findAncestor(Class<T> type)
+	{
+		for (var ancestor : ancestors)
+		{
+			if (type.isInstance(ancestor))
+			{
+				return type.cast(ancestor);
+			}
+		}
+
+		return null;
+	}
+
+	@Override
+	public ReferenceUsage referenceUsage(ISymbolReferenceNode reference)
+	{
+		var usage = referenceUsages.get(reference);
+		// References from other modules, e.g. to variables of a data area, haven't been walked
+		return usage != null ? usage : ReferenceUsage.of(reference);
+	}
+
 	@Override
 	public INaturalModule getModule()
 	{
@@ -10,6 +10,7 @@ import org.amshove.natparse.natural.ITokenNode;
 import org.reflections.Reflections;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public enum LinterContext implements ILinterContext
 {
@@ -18,6 +19,8 @@ public enum LinterContext implements ILinterContext
 	private boolean initialized = false;
 	private List<AbstractAnalyzer> registeredAnalyzers;
 	private final Map<Class<? extends ISyntaxNode>, List<INodeAnalyzingFunction>> nodeAnalyzerFunctions = new HashMap<>();
+	// All analyzers that apply to a concrete node class, computed once per class instead of once per node
+	private final Map<Class<?>, List<INodeAnalyzingFunction>> nodeAnalyzerFunctionsByNodeClass = new ConcurrentHashMap<>();
 	private final Map<SyntaxKind, List<ITokenAnalyzingFunction>> tokenAnalyzerFunctions = new EnumMap<>(SyntaxKind.class);
 	private final List<IModuleAnalyzingFunction> moduleAnalyzerFunctions = new ArrayList<>();
 
@@ -59,6 +62,7 @@ public enum LinterContext implements ILinterContext
 	{
 		nodeAnalyzerFunctions.computeIfAbsent(nodeType, n -> new ArrayList<>())
 			.add(analyzingFunction);
+		nodeAnalyzerFunctionsByNodeClass.clear();
 	}
 
 	@Override
@@ -81,12 +85,6 @@ public enum LinterContext implements ILinterContext
 
 	void analyze(ISyntaxNode syntaxNode, IAnalyzeContext context)
 	{
-		var analyzers = nodeAnalyzerFunctions.get(syntaxNode.getClass());
-		if (analyzers != null)
-		{
-			analyzers.forEach(analyzer -> analyzer.analyze(syntaxNode, context));
-		}
-
 		if (syntaxNode instanceof ITokenNode tokenNode && tokenNode.token() != null)
 		{
 			var tokenAnalyzer = tokenAnalyzerFunctions.get(tokenNode.token().kind());
@@ -96,8 +94,23 @@ public enum LinterContext implements ILinterContext
 			}
 		}
 
-		nodeAnalyzerFunctions.entrySet().stream().filter(e -> e.getKey().isAssignableFrom(syntaxNode.getClass()))
-			.forEach(e -> e.getValue().forEach(a -> a.analyze(syntaxNode, context)));
+		for (var analyzer : nodeAnalyzerFunctionsByNodeClass.computeIfAbsent(syntaxNode.getClass(), this::findNodeAnalyzers))
+		{
+			analyzer.analyze(syntaxNode, context);
+		}
+	}
+
+	private List<INodeAnalyzingFunction> findNodeAnalyzers(Class<?> nodeClass)
+	{
+		var analyzers = new ArrayList<INodeAnalyzingFunction>();
+		for (var entry : nodeAnalyzerFunctions.entrySet())
+		{
+			if (entry.getKey().isAssignableFrom(nodeClass))
+			{
+				analyzers.addAll(entry.getValue());
+			}
+		}
+		return List.copyOf(analyzers);
 	}
 
 	void analyzeModule(INaturalModule module, IAnalyzeContext context)
@@ -124,6 +137,7 @@ public enum LinterContext implements ILinterContext
 	{
 		registeredAnalyzers.clear();
 		nodeAnalyzerFunctions.clear();
+		nodeAnalyzerFunctionsByNodeClass.clear();
 		tokenAnalyzerFunctions.clear();
 		moduleAnalyzerFunctions.clear();
 		editorConfig = null;
@@ -36,18 +36,18 @@ public class NaturalLinter
 	{
 		for (var descendant : syntaxTree.descendants())
 		{
-			linterContext.analyze(descendant, analyzeContext);
-			var hasDescended = false;
-			if (!(descendant instanceof ITokenNode)) // perf: TokenNodes don't have descendants
+			if (descendant instanceof ISymbolReferenceNode reference)
 			{
-				hasDescended = true;
-				analyze(descendant, analyzeContext, linterContext);
+				analyzeContext.classifyReference(reference);
 			}
 
-			if (descendant instanceof IGroupNode // But groups do have descendants :-)
-				&& !hasDescended)
+			linterContext.analyze(descendant, analyzeContext);
+			if (!(descendant instanceof ITokenNode) // perf: TokenNodes don't have descendants
+				|| descendant instanceof IGroupNode) // But groups do have descendants :-)
 			{
+				analyzeContext.enter(descendant);
 				analyze(descendant, analyzeContext, linterContext);
+				analyzeContext.leave();
 			}
 		}
 	}
@@ -185,6 +185,44 @@ class VariableReferenceAnalyzerShould extends AbstractAnalyzerTest
 		);
 	}
 
+	@Test
+	void reportADiagnosticForVariablesThatAreOnlyModifiedWithinNestedStatements()
+	{
+		testDiagnostics(
+			"""
+			define data local
+			1 #var (a10)
+			1 #flag (l)
+			end-define
+			if #flag
+			  reset #var
+			else
+			  #var := 'A'
+			end-if
+			end
+			""",
+			expectDiagnostic(1, VariableReferenceAnalyzer.VARIABLE_MODIFIED_ONLY)
+		);
+	}
+
+	@Test
+	void notReportADiagnosticIfAVariableIsReadWithinAnAssignment()
+	{
+		testDiagnostics(
+			"""
+			define data local
+			1 #var (a10)
+			1 #other (a10)
+			end-define
+			#var := 'A'
+			#other := #var
+			write #other
+			end
+			""",
+			expectNoDiagnosticOfType(VariableReferenceAnalyzer.VARIABLE_MODIFIED_ONLY)
+		);
+	}
+
 	@Test
 	void notReportADiagnosticIfAVariableIsModifiedAndRead()
 	{
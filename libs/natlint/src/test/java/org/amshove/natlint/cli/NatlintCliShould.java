@@ -3,6 +3,10 @@ package org.amshove.natlint.cli;
 import org.amshove.natparse.natural.project.NaturalProject;
 import org.amshove.testhelpers.ProjectName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.regex.Pattern;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
@@ -57,4 +61,24 @@ class NatlintCliShould extends CliTest
 		assertThat(result.exitCode()).isPositive();
 		assertThat(result.stdOut().contains("Total diagnostics by ID"));
 	}
+
+	@Test
+	void reuseTheResultsOfUnchangedModulesFromTheCache(@ProjectName("clitest") NaturalProject project, @TempDir Path cacheDirectory)
+	{
+		var cacheFile = cacheDirectory.resolve("natlint.cache").toString();
+		var firstRun = runNatlint("-w", project.getRootPath().toAbsolutePath().toString(), "--cache", cacheFile);
+		var secondRun = runNatlint("-w", project.getRootPath().toAbsolutePath().toString(), "--cache", cacheFile);
+
+		assertThat(firstRun.stdOut()).contains("Reused from cache: 0");
+		assertThat(secondRun.stdOut()).doesNotContain("Reused from cache: 0");
+		assertThat(totalDiagnostics(secondRun)).isEqualTo(totalDiagnostics(firstRun));
+		assertThat(secondRun.exitCode()).isEqualTo(firstRun.exitCode());
+	}
+
+	private static String totalDiagnostics(CliResult result)
+	{
+		var matcher = Pattern.compile("Total diagnostics: ([\\d,.]+)").matcher(result.stdOut());
+		assertThat(matcher.find()).isTrue();
+		return matcher.group(1);
+	}
 }
@@ -1,5 +1,7 @@
 package org.amshove.natls;
 
+import java.util.Objects;
+
 public class DiagnosticOriginalUri
 {
 
@@ -14,4 +16,16 @@ public class DiagnosticOriginalUri
 	{
 		return uri;
 	}
+
+	@Override
+	public boolean equals(Object o)
+	{
+		return o instanceof DiagnosticOriginalUri other && Objects.equals(uri, other.uri);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Objects.hashCode(uri);
+	}
 }
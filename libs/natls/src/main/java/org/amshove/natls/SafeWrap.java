@@ -1,5 +1,7 @@
 package org.amshove.natls;
 
+import org.amshove.natls.project.BackgroundAnalysisQueue;
+
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 import java.util.logging.Level;
@@ -14,8 +16,21 @@ public class SafeWrap
 
 	public static <R> CompletableFuture<R> wrapSafe(Supplier<CompletableFuture<R>> function)
 	{
-		return function.get().handle((r, e) ->
+		BackgroundAnalysisQueue.interactiveRequestStarted();
+		CompletableFuture<R> request;
+		try
+		{
+			request = function.get();
+		}
+		catch (RuntimeException e)
+		{
+			BackgroundAnalysisQueue.interactiveRequestFinished();
+			throw e;
+		}
+
+		return request.handle((r, e) ->
 		{
+			BackgroundAnalysisQueue.interactiveRequestFinished();
 			if (e != null)
 			{
 				log.log(Level.SEVERE, "Uncaught exception", e);
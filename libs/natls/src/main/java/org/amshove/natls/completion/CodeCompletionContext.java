@@ -21,7 +21,9 @@ public record CodeCompletionContext(
 {
 	public static CodeCompletionContext create(LanguageServerFile file, Position position)
 	{
-		var module = file.module();
+		// Module and tokens have to belong to the same parse, otherwise positions don't match up
+		var snapshot = file.snapshot();
+		var module = snapshot.module();
 		var semanticPosition = SemanticPosition.STATEMENTS;
 		if (module instanceof IHasDefineData hasDefineData && hasDefineData.defineData() != null
 			&& hasDefineData.defineData().enclosesPosition(position.getLine(), position.getCharacter()))
@@ -29,7 +31,7 @@ public record CodeCompletionContext(
 			semanticPosition = SemanticPosition.DEFINE_DATA;
 		}
 
-		var tokens = file.tokens().toList();
+		var tokens = snapshot.tokens() != null ? snapshot.tokens().stream().toList() : file.tokens().toList();
 		var tokenAtPosition = NodeUtil.findTokenOnOrBeforePosition(tokens, position.getLine(), position.getCharacter());
 		var previousToken = NodeUtil.findTokenOnOrBeforePosition(tokens, tokenAtPosition.line(), tokenAtPosition.offsetInLine() - 1);
 		if (tokenAtPosition.line() < position.getLine())
@@ -114,6 +116,32 @@ public record CodeCompletionContext(
 		return !isCurrentTokenKind(SyntaxKind.PERFORM) && !isCurrentTokenKind(SyntaxKind.CALLNAT) && !cursorIsExactlyOnCurrentToken();
 	}
 
+	/**
+	 * Returns the part of the module name that has already been typed in front of the cursor, e.g. {@code SUB} for
+	 * {@code CALLNAT 'SUB${}$}. Returns an empty string if the cursor isn't on a name.
+	 */
+	public String typedModulePrefix()
+	{
+		if (currentToken == null || !cursorIsExactlyOnCurrentToken())
+		{
+			return "";
+		}
+
+		var kind = currentToken.kind();
+		if (!kind.isIdentifier() && !kind.canBeIdentifier() && kind != SyntaxKind.STRING_LITERAL)
+		{
+			return "";
+		}
+
+		var source = currentToken.source();
+		var typed = source.substring(0, Math.min(source.length(), Math.max(0, originalPosition.getCharacter() - currentToken.offsetInLine())));
+		if (kind == SyntaxKind.STRING_LITERAL)
+		{
+			typed = typed.replace("'", "").replace("\"", "");
+		}
+		return typed.toUpperCase();
+	}
+
 	public String previousTextsCombined()
 	{
 		var sb = new StringBuilder();
@@ -8,8 +8,9 @@ import org.amshove.natls.languageserver.LspUtil;
 import org.amshove.natls.languageserver.UnresolvedCompletionInfo;
 import org.amshove.natls.project.LanguageServerFile;
 import org.amshove.natls.project.LanguageServerLibrary;
+import org.amshove.natls.project.ParameterSignatureIndex;
+import org.amshove.natls.project.ParseLevel;
 import org.amshove.natls.snippets.SnippetEngine;
-import org.amshove.natparse.ReadOnlyList;
 import org.amshove.natparse.lexing.SyntaxKind;
 import org.amshove.natparse.natural.*;
 import org.amshove.natparse.natural.builtin.BuiltInFunctionTable;
@@ -26,10 +27,20 @@ import java.util.stream.Stream;
 public class CompletionProvider
 {
 	private static final Logger log = Logger.getAnonymousLogger();
+	// Libraries can contain tens of thousands of modules. The client asks again with a longer prefix when the list is incomplete.
+	static final int MAX_MODULE_COMPLETIONS_PER_TYPE = 200;
 
 	private final SnippetEngine snippetEngine;
 	private final HoverProvider hoverProvider;
 	private LSConfiguration config;
+	private volatile VariableCompletions lastVariableCompletions;
+
+	/**
+	 * The variable completions of the last module completion was requested in. Variables only change when the module is
+	 * parsed again, so consecutive requests while typing in the same module can reuse them.
+	 */
+	private record VariableCompletions(LanguageServerFile file, long version, boolean qualify, List<CompletionItem> items)
+	{}
 
 	public CompletionProvider(SnippetEngine snippetEngine, HoverProvider hoverProvider)
 	{
@@ -37,7 +48,7 @@ public class CompletionProvider
 		this.hoverProvider = hoverProvider;
 	}
 
-	public List<CompletionItem> prepareCompletion(
+	public CompletionList prepareCompletion(
 		LanguageServerFile file, CompletionParams params,
 		LSConfiguration config
 	)
@@ -45,22 +56,24 @@ public class CompletionProvider
 		this.config = config;
 		if (!file.getType().canHaveBody())
 		{
-			return List.of();
+			return new CompletionList(List.of());
 		}
 		var module = file.module();
 		var completionContext = CodeCompletionContext.create(file, params.getPosition());
 
 		var completionItems = new ArrayList<CompletionItem>();
+		var completionList = new CompletionList(completionItems);
 
 		if (completionContext.completesDataArea())
 		{
-			return dataAreaCompletions(file.getLibrary());
+			completionItems.addAll(dataAreaCompletions(file.getLibrary()));
+			return completionList;
 		}
 
 		if (completionContext.completesInclude())
 		{
 			completionItems.addAll(copycodeCompletions(file.getLibrary(), completionContext));
-			return completionItems;
+			return completionList;
 		}
 
 		var isTriggeredByDot = params.getContext().getTriggerKind() == CompletionTriggerKind.TriggerCharacter && ".".equals(
@@ -73,40 +86,54 @@ public class CompletionProvider
 
 			addPostfixCompletionItems(file, completionContext, module, completionItems);
 			addQualifiedVariableCompletionItems(file, completionContext, completionItems, module);
-			return completionItems;
+			return completionList;
 		}
 
 		if (completionContext.completesPerform() && !completionContext.completesParameter())
 		{
-			completionItems.addAll(externalSubroutineCompletions(file.getLibrary(), completionContext));
+			completionItems.addAll(externalSubroutineCompletions(file.getLibrary(), completionContext, completionList));
 			completionItems.addAll(localSubroutineCompletions(module, completionContext));
-			return completionItems;
+			return completionList;
 		}
 
 		if (completionContext.completesCallnat() && !completionContext.completesParameter())
 		{
-			completionItems.addAll(subprogramCompletions(file.getLibrary(), completionContext));
-			return completionItems;
+			completionItems.addAll(subprogramCompletions(file.getLibrary(), completionContext, completionList));
+			return completionList;
 		}
 
 		completionItems.addAll(snippetEngine.provideSnippets(file));
 
-		completionItems.addAll(
-			findVariablesToComplete(module)
-				.map(v -> toVariableCompletion(v, module, file, ""))
-				.filter(Objects::nonNull)
-				.toList()
-		);
+		completionItems.addAll(variableCompletions(file, module));
 
 		completionItems.addAll(localSubroutineCompletions(module, completionContext));
 
-		completionItems.addAll(functionCompletions(file.getLibrary()));
-		completionItems.addAll(externalSubroutineCompletions(file.getLibrary(), completionContext));
-		completionItems.addAll(subprogramCompletions(file.getLibrary(), completionContext));
+		completionItems.addAll(functionCompletions(file.getLibrary(), completionContext, completionList));
+		completionItems.addAll(externalSubroutineCompletions(file.getLibrary(), completionContext, completionList));
+		completionItems.addAll(subprogramCompletions(file.getLibrary(), completionContext, completionList));
 
 		completionItems.addAll(completeSystemVars(completionContext));
 
-		return completionItems;
+		return completionList;
+	}
+
+	/**
+	 * Finds the modules of the given type matching the name typed so far.<br/>
+	 * Marks the completion list as incomplete if the modules have been narrowed down, so that the client asks again
+	 * instead of filtering the current result while the user keeps typing or deletes characters.
+	 */
+	private List<LanguageServerFile> findModulesToComplete(
+		LanguageServerLibrary library, NaturalFileType type,
+		CodeCompletionContext context, CompletionList completionList
+	)
+	{
+		var prefix = context.typedModulePrefix();
+		var modules = library.findModulesStartingWith(type, prefix, true, MAX_MODULE_COMPLETIONS_PER_TYPE);
+		if (!prefix.isEmpty() || modules.size() >= MAX_MODULE_COMPLETIONS_PER_TYPE)
+		{
+			completionList.setIsIncomplete(true);
+		}
+		return modules;
 	}
 
 	private void addQualifiedVariableCompletionItems(
@@ -122,7 +149,7 @@ public class CompletionProvider
 		completionItems.addAll(
 			findVariablesToComplete(module)
 				.filter(v -> v.qualifiedName().startsWith(qualifiedNameFilter))
-				.map(v -> toVariableCompletion(v, module, file, qualifiedNameFilter))
+				.map(v -> toVariableCompletion(v, file, Set.of(), qualifiedNameFilter))
 				.filter(Objects::nonNull)
 				.toList()
 		);
@@ -515,7 +542,8 @@ public class CompletionProvider
 			return item;
 		}
 
-		var module = calledModulesFile.module();
+		// Functions need their return type, which is only known after parsing the whole module
+		var module = calledModulesFile.module(item.getKind() == CompletionItemKind.Function ? ParseLevel.BODY : ParseLevel.DEFINE_DATA);
 		if (module == null)
 		{
 			// Happens when the module this is called on has unrecoverable errors
@@ -618,14 +646,60 @@ public class CompletionProvider
 		};
 	}
 
+	private List<CompletionItem> variableCompletions(LanguageServerFile file, INaturalModule module)
+	{
+		var snapshot = file.snapshot();
+		var qualify = config.getCompletion().isQualify();
+		var cached = lastVariableCompletions;
+		if (cached != null && cached.file() == file && cached.version() == snapshot.version() && cached.qualify() == qualify && snapshot.module() == module)
+		{
+			return cached.items();
+		}
+
+		var ambiguousNames = findAmbiguousNames(module);
+		var items = findVariablesToComplete(module)
+			.map(v -> toVariableCompletion(v, file, ambiguousNames, ""))
+			.filter(Objects::nonNull)
+			.toList();
+
+		// Only cache if the module hasn't been replaced by a parse in the meantime, otherwise the version would not match the items
+		if (snapshot.module() == module)
+		{
+			lastVariableCompletions = new VariableCompletions(file, snapshot.version(), qualify, items);
+		}
+		return items;
+	}
+
+	/**
+	 * Names that are declared more than once in the module, which have to be completed qualified.
+	 */
+	private static Set<String> findAmbiguousNames(INaturalModule module)
+	{
+		var declarationsByName = new HashMap<String, Integer>();
+		for (var referencableNode : module.referencableNodes())
+		{
+			declarationsByName.merge(referencableNode.declaration().symbolName(), 1, Integer::sum);
+		}
+
+		var ambiguousNames = new HashSet<String>();
+		declarationsByName.forEach((name, declarations) ->
+		{
+			if (declarations > 1)
+			{
+				ambiguousNames.add(name);
+			}
+		});
+		return ambiguousNames;
+	}
+
 	private CompletionItem toVariableCompletion(
-		IVariableNode variableNode, INaturalModule module,
-		LanguageServerFile file, String alreadyPresentText
+		IVariableNode variableNode, LanguageServerFile file,
+		Set<String> ambiguousNames, String alreadyPresentText
 	)
 	{
 		try
 		{
-			var item = createCompletionItem(variableNode, file, module.referencableNodes(), !alreadyPresentText.isEmpty());
+			var item = createCompletionItem(variableNode, file, ambiguousNames, !alreadyPresentText.isEmpty());
 			item.setLabel(item.getLabel().replace(alreadyPresentText, ""));
 			item.setInsertText(item.getInsertText().substring(alreadyPresentText.length()));
 			if (item.getKind() == CompletionItemKind.Variable)
@@ -652,9 +726,13 @@ public class CompletionProvider
 			); // this is the `REDEFINE #VAR`, which results in the variable being doubled in completion
 	}
 
-	private Collection<? extends CompletionItem> functionCompletions(LanguageServerLibrary library)
+	private Collection<? extends CompletionItem> functionCompletions(
+		LanguageServerLibrary library,
+		CodeCompletionContext context,
+		CompletionList completionList
+	)
 	{
-		return library.getModulesOfType(NaturalFileType.FUNCTION, true)
+		return findModulesToComplete(library, NaturalFileType.FUNCTION, context, completionList)
 			.stream()
 			.map(f ->
 			{
@@ -678,21 +756,15 @@ public class CompletionProvider
 
 	private String functionParameterListAsSnippet(LanguageServerFile function)
 	{
-		if (!(function.module()instanceof IHasDefineData hasDefineData) || hasDefineData.defineData() == null)
-		{
-			return "";
-		}
-
 		var builder = new StringBuilder();
 		var index = 1;
-		for (var parameter : hasDefineData.defineData().declaredParameterInOrder())
+		for (var parameter : ParameterSignatureIndex.signatureOf(function).parameters())
 		{
 			if (index > 1)
 			{
 				builder.append(", ");
 			}
-			var parameterName = parameter instanceof IUsingNode using ? using.target().symbolName() : ((IVariableNode) parameter).name();
-			builder.append("${%d:%s}".formatted(index, parameterName));
+			builder.append("${%d:%s}".formatted(index, parameter.name()));
 			index++;
 		}
 
@@ -701,18 +773,12 @@ public class CompletionProvider
 
 	private String externalModuleParameterListAsSnippet(LanguageServerFile module)
 	{
-		if (!(module.module()instanceof IHasDefineData hasDefineData) || hasDefineData.defineData() == null)
-		{
-			return "";
-		}
-
 		var builder = new StringBuilder();
 		var index = 1;
-		for (var parameter : hasDefineData.defineData().declaredParameterInOrder())
+		for (var parameter : ParameterSignatureIndex.signatureOf(module).parameters())
 		{
 			builder.append(" ");
-			var parameterName = parameter instanceof IUsingNode using ? using.target().symbolName() : ((IVariableNode) parameter).name();
-			builder.append("${%d:%s}".formatted(index, parameterName));
+			builder.append("${%d:%s}".formatted(index, parameter.name()));
 			index++;
 		}
 
@@ -721,10 +787,11 @@ public class CompletionProvider
 
 	private Collection<? extends CompletionItem> subprogramCompletions(
 		LanguageServerLibrary library,
-		CodeCompletionContext context
+		CodeCompletionContext context,
+		CompletionList completionList
 	)
 	{
-		return library.getModulesOfType(NaturalFileType.SUBPROGRAM, true)
+		return findModulesToComplete(library, NaturalFileType.SUBPROGRAM, context, completionList)
 			.stream()
 			.map(f ->
 			{
@@ -785,10 +852,11 @@ public class CompletionProvider
 
 	private Collection<? extends CompletionItem> externalSubroutineCompletions(
 		LanguageServerLibrary library,
-		CodeCompletionContext context
+		CodeCompletionContext context,
+		CompletionList completionList
 	)
 	{
-		return library.getModulesOfType(NaturalFileType.SUBROUTINE, true)
+		return findModulesToComplete(library, NaturalFileType.SUBROUTINE, context, completionList)
 			.stream()
 			.map(f ->
 			{
@@ -812,14 +880,13 @@ public class CompletionProvider
 
 	private CompletionItem createCompletionItem(
 		IVariableNode variableNode, LanguageServerFile openFile,
-		ReadOnlyList<IReferencableNode> referencableNodes, boolean forceQualification
+		Set<String> ambiguousNames, boolean forceQualification
 	)
 	{
 		var item = new CompletionItem();
 		var variableName = variableNode.name();
 
-		if (forceQualification || config.getCompletion().isQualify() || referencableNodes.stream()
-			.filter(n -> n.declaration().symbolName().equals(variableNode.name())).count() > 1)
+		if (forceQualification || config.getCompletion().isQualify() || ambiguousNames.contains(variableNode.name()))
 		{
 			variableName = variableNode.qualifiedName();
 		}
@@ -0,0 +1,38 @@
+package org.amshove.natls.config;
+
+public class AnalysisConfiguration
+{
+	private boolean background = false;
+	private int maxWorkers = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+	private int maxHeapUsagePercent = 80;
+
+	public boolean isBackground()
+	{
+		return background;
+	}
+
+	public void setBackground(boolean background)
+	{
+		this.background = background;
+	}
+
+	public int getMaxWorkers()
+	{
+		return maxWorkers;
+	}
+
+	public void setMaxWorkers(int maxWorkers)
+	{
+		this.maxWorkers = maxWorkers;
+	}
+
+	public int getMaxHeapUsagePercent()
+	{
+		return maxHeapUsagePercent;
+	}
+
+	public void setMaxHeapUsagePercent(int maxHeapUsagePercent)
+	{
+		this.maxHeapUsagePercent = maxHeapUsagePercent;
+	}
+}
@@ -7,6 +7,8 @@ public class LSConfiguration
 	private InlayHintsConfiguration inlayhints = new InlayHintsConfiguration();
 	private InitilizationConfiguration initialization = new InitilizationConfiguration();
 	private MapsConfiguration maps = new MapsConfiguration();
+	private MemoryConfiguration memory = new MemoryConfiguration();
+	private AnalysisConfiguration analysis = new AnalysisConfiguration();
 
 	public static LSConfiguration createDefault()
 	{
@@ -52,4 +54,24 @@ public class LSConfiguration
 	{
 		this.maps = maps;
 	}
+
+	public MemoryConfiguration getMemory()
+	{
+		return memory;
+	}
+
+	public void setMemory(MemoryConfiguration memory)
+	{
+		this.memory = memory;
+	}
+
+	public AnalysisConfiguration getAnalysis()
+	{
+		return analysis;
+	}
+
+	public void setAnalysis(AnalysisConfiguration analysis)
+	{
+		this.analysis = analysis;
+	}
 }
@@ -0,0 +1,18 @@
+package org.amshove.natls.config;
+
+import org.amshove.natls.project.ParsedModuleCache;
+
+public class MemoryConfiguration
+{
+	private int maxRetainedSyntaxTrees = ParsedModuleCache.DEFAULT_MAX_RETAINED_SYNTAX_TREES;
+
+	public int getMaxRetainedSyntaxTrees()
+	{
+		return maxRetainedSyntaxTrees;
+	}
+
+	public void setMaxRetainedSyntaxTrees(int maxRetainedSyntaxTrees)
+	{
+		this.maxRetainedSyntaxTrees = maxRetainedSyntaxTrees;
+	}
+}
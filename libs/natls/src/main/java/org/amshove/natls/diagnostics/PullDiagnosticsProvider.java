@@ -0,0 +1,126 @@
+package org.amshove.natls.diagnostics;
+
+import org.amshove.natls.project.LanguageServerFile;
+import org.amshove.natls.project.ParseLevel;
+import org.amshove.natparse.natural.project.NaturalFileType;
+import org.eclipse.lsp4j.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Answers diagnostic requests of clients that pull diagnostics instead of getting them published.<br/>
+ * Every report gets a result id. Clients send the id of their last report, which lets files whose diagnostics didn't
+ * change be answered with an unchanged report instead of all diagnostics.
+ */
+public class PullDiagnosticsProvider
+{
+	static final int WORKSPACE_REPORT_BATCH_SIZE = 100;
+
+	private record ReportedDiagnostics(String resultId, List<Diagnostic> diagnostics)
+	{}
+
+	private final AtomicLong resultIds = new AtomicLong();
+	private final Map<Path, ReportedDiagnostics> reportedDiagnostics = new ConcurrentHashMap<>();
+
+	public DocumentDiagnosticReport documentReport(LanguageServerFile file, String previousResultId)
+	{
+		var reported = report(file);
+		if (reported.resultId().equals(previousResultId))
+		{
+			return new DocumentDiagnosticReport(new RelatedUnchangedDocumentDiagnosticReport(reported.resultId()));
+		}
+
+		var fullReport = new RelatedFullDocumentDiagnosticReport(reported.diagnostics());
+		fullReport.setResultId(reported.resultId());
+		return new DocumentDiagnosticReport(fullReport);
+	}
+
+	/**
+	 * Reports the diagnostics of all given files that have been parsed. Files that haven't been parsed yet have no
+	 * diagnostics to report and are skipped without parsing them.
+	 *
+	 * @param partialResults if not {@code null}, reports are passed in batches to this consumer instead of being
+	 *            returned
+	 */
+	public WorkspaceDiagnosticReport workspaceReport(
+		Collection<LanguageServerFile> files,
+		List<PreviousResultId> previousResultIds,
+		Consumer<List<WorkspaceDocumentDiagnosticReport>> partialResults
+	)
+	{
+		var previousResultIdByUri = new HashMap<String, String>();
+		for (var previousResultId : previousResultIds)
+		{
+			previousResultIdByUri.put(previousResultId.getUri(), previousResultId.getValue());
+		}
+
+		var reports = new ArrayList<WorkspaceDocumentDiagnosticReport>();
+		for (var file : files)
+		{
+			// Checking the level doesn't parse, a workspace report must not parse the whole workspace
+			if (file.getType() == NaturalFileType.DDM || !file.isParsedTo(ParseLevel.HEADER))
+			{
+				continue;
+			}
+
+			reports.add(workspaceDocumentReport(file, previousResultIdByUri.get(file.getUri())));
+			if (partialResults != null && reports.size() == WORKSPACE_REPORT_BATCH_SIZE)
+			{
+				partialResults.accept(List.copyOf(reports));
+				reports.clear();
+			}
+		}
+
+		if (partialResults != null)
+		{
+			if (!reports.isEmpty())
+			{
+				partialResults.accept(List.copyOf(reports));
+			}
+			// All items have been sent as partial results, the response itself has to be empty
+			return new WorkspaceDiagnosticReport(List.of());
+		}
+
+		return new WorkspaceDiagnosticReport(reports);
+	}
+
+	public void forget(LanguageServerFile file)
+	{
+		reportedDiagnostics.remove(file.getPath());
+	}
+
+	private WorkspaceDocumentDiagnosticReport workspaceDocumentReport(LanguageServerFile file, String previousResultId)
+	{
+		var reported = report(file);
+		if (reported.resultId().equals(previousResultId))
+		{
+			return new WorkspaceDocumentDiagnosticReport(new WorkspaceUnchangedDocumentDiagnosticReport(reported.resultId(), file.getUri(), null));
+		}
+
+		var fullReport = new WorkspaceFullDocumentDiagnosticReport(reported.diagnostics(), file.getUri(), null);
+		fullReport.setResultId(reported.resultId());
+		return new WorkspaceDocumentDiagnosticReport(fullReport);
+	}
+
+	/**
+	 * Returns the last report of the file if its diagnostics are still the same, otherwise creates a new one.
+	 */
+	private ReportedDiagnostics report(LanguageServerFile file)
+	{
+		var diagnostics = file.allDiagnostics();
+		return reportedDiagnostics.compute(
+			file.getPath(),
+			(path, lastReport) -> lastReport != null && lastReport.diagnostics().equals(diagnostics)
+				? lastReport
+				: new ReportedDiagnostics(Long.toString(resultIds.incrementAndGet()), diagnostics)
+		);
+	}
+}
@@ -17,7 +17,7 @@ public class NaturalDocumentService implements TextDocumentService
 	@Override
 	public CompletableFuture<Either<List<CompletionItem>, CompletionList>> completion(CompletionParams completionParams)
 	{
-		return wrapSafe(() -> CompletableFuture.supplyAsync(() -> Either.forLeft(languageService.complete(completionParams))));
+		return wrapSafe(() -> CompletableFuture.supplyAsync(() -> Either.forRight(languageService.complete(completionParams))));
 	}
 
 	@Override
@@ -163,6 +163,30 @@ public class NaturalDocumentService implements TextDocumentService
 		return wrapSafe(() -> CompletableFuture.supplyAsync(() -> languageService.folding(params)));
 	}
 
+	@Override
+	public CompletableFuture<DocumentDiagnosticReport> diagnostic(DocumentDiagnosticParams params)
+	{
+		return wrapSafe(() -> CompletableFuture.supplyAsync(() -> languageService.documentDiagnostics(params)));
+	}
+
+	@Override
+	public CompletableFuture<SemanticTokens> semanticTokensFull(SemanticTokensParams params)
+	{
+		return wrapSafe(() -> CompletableFuture.supplyAsync(() -> languageService.semanticTokens(params)));
+	}
+
+	@Override
+	public CompletableFuture<Either<SemanticTokens, SemanticTokensDelta>> semanticTokensFullDelta(SemanticTokensDeltaParams params)
+	{
+		return wrapSafe(() -> CompletableFuture.supplyAsync(() -> languageService.semanticTokensDelta(params)));
+	}
+
+	@Override
+	public CompletableFuture<SemanticTokens> semanticTokensRange(SemanticTokensRangeParams params)
+	{
+		return wrapSafe(() -> CompletableFuture.supplyAsync(() -> languageService.semanticTokensRange(params)));
+	}
+
 	public void setLanguageService(NaturalLanguageService languageService)
 	{
 		this.languageService = languageService;
@@ -12,6 +12,7 @@ import org.amshove.natls.languageserver.inputstructure.InputStructureResponse;
 import org.amshove.natls.markupcontent.MarkdownContentBuilder;
 import org.amshove.natls.markupcontent.MarkupContentBuilderFactory;
 import org.amshove.natls.progress.*;
+import org.amshove.natls.semantictokens.SemanticTokensProvider;
 import org.amshove.natparse.natural.project.NaturalFileType;
 import org.eclipse.lsp4j.*;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
@@ -76,6 +77,22 @@ public class NaturalLanguageServer implements LanguageServer, LanguageClientAwar
 
 			capabilities.setDocumentFormattingProvider(true);
 
+			if (params.getCapabilities().getTextDocument() != null && params.getCapabilities().getTextDocument().getDiagnostic() != null)
+			{
+				var diagnosticOptions = new DiagnosticRegistrationOptions(true, true);
+				diagnosticOptions.setIdentifier("natls");
+				capabilities.setDiagnosticProvider(diagnosticOptions);
+				var workspaceCapabilities = params.getCapabilities().getWorkspace();
+				languageService.usePullDiagnostics(
+					workspaceCapabilities != null && workspaceCapabilities.getDiagnostics() != null
+						&& Boolean.TRUE.equals(workspaceCapabilities.getDiagnostics().getRefreshSupport())
+				);
+			}
+
+			capabilities.setSemanticTokensProvider(
+				new SemanticTokensWithRegistrationOptions(SemanticTokensProvider.LEGEND, new SemanticTokensServerFull(true), true)
+			);
+
 			var workspace = new WorkspaceServerCapabilities();
 			var fileOperations = new FileOperationsServerCapabilities();
 			var naturalFileOperationOptions = new FileOperationOptions(
@@ -15,12 +15,14 @@ import org.amshove.natls.completion.CompletionProvider;
 import org.amshove.natls.config.IConfigChangedSubscriber;
 import org.amshove.natls.config.LSConfiguration;
 import org.amshove.natls.definition.DefinitionFinder;
+import org.amshove.natls.diagnostics.PullDiagnosticsProvider;
 import org.amshove.natls.documentsymbol.DocumentSymbolProvider;
 import org.amshove.natls.folding.FoldingVisitor;
 import org.amshove.natls.hover.HoverContext;
 import org.amshove.natls.hover.HoverProvider;
 import org.amshove.natls.inlayhints.InlayHintProvider;
 import org.amshove.natls.languageserver.constantfinding.ConstantsFinder;
+import org.amshove.natls.languageserver.constantfinding.ConstantsIndex;
 import org.amshove.natls.languageserver.constantfinding.FindConstantsParams;
 import org.amshove.natls.languageserver.constantfinding.FindConstantsResponse;
 import org.amshove.natls.languageserver.inputstructure.InputStructureParams;
@@ -29,11 +31,16 @@ import org.amshove.natls.progress.BackgroundTasks;
 import org.amshove.natls.progress.IProgressMonitor;
 import org.amshove.natls.progress.NullProgressMonitor;
 import org.amshove.natls.progress.ProgressTasks;
+import org.amshove.natls.project.BackgroundAnalysisQueue;
 import org.amshove.natls.project.LanguageServerFile;
 import org.amshove.natls.project.LanguageServerProject;
 import org.amshove.natls.project.ModuleReferenceParser;
+import org.amshove.natls.project.ParseScheduler;
 import org.amshove.natls.project.ParseStrategy;
+import org.amshove.natls.project.ParsedModuleCache;
+import org.amshove.natls.project.WorkspaceSources;
 import org.amshove.natls.referencing.ReferenceFinder;
+import org.amshove.natls.semantictokens.SemanticTokensProvider;
 import org.amshove.natls.signaturehelp.SignatureHelpProvider;
 import org.amshove.natls.snippets.SnippetEngine;
 import org.amshove.natls.viewer.InputStructureCreator;
@@ -63,6 +70,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -76,6 +84,10 @@ public class NaturalLanguageService implements LanguageClientAware
 	private LanguageServerProject languageServerProject;
 	private LanguageClient client;
 	private boolean initialized;
+	private final PullDiagnosticsProvider pullDiagnosticsProvider = new PullDiagnosticsProvider();
+	private final BackgroundAnalysisQueue backgroundAnalysis = new BackgroundAnalysisQueue(this::publishDiagnosticsOfFile, this::backgroundAnalysisFinished);
+	private boolean pullDiagnostics;
+	private boolean diagnosticRefreshSupported;
 	private Path workspaceRoot;
 
 	private InlayHintProvider inlayHintProvider;
@@ -88,8 +100,10 @@ public class NaturalLanguageService implements LanguageClientAware
 	private final ReferenceFinder referenceFinder = new ReferenceFinder();
 	private final DefinitionFinder definitionFinder = new DefinitionFinder();
 	private final SignatureHelpProvider signatureHelp = new SignatureHelpProvider();
+	private final ConstantsIndex constantsIndex = new ConstantsIndex();
 	private CallHierarchyProvider callHierarchyProvider;
 	private CompletionProvider completionProvider;
+	private final SemanticTokensProvider semanticTokensProvider = new SemanticTokensProvider();
 	private final Set<Path> openEditors = new HashSet<>();
 
 	public void indexProject(Path workspaceRoot, IProgressMonitor progressMonitor)
@@ -111,7 +125,7 @@ public class NaturalLanguageService implements LanguageClientAware
 
 		progressMonitor.progress("Indexing Natural files", 40);
 		var indexer = new NaturalProjectFileIndexer();
-		indexer.indexProject(project);
+		log.info(indexer.indexProject(project).toString());
 		this.project = project;
 		languageServerProject = LanguageServerProject.fromProject(project);
 		if (!getConfig().getInitialization().isAsync())
@@ -131,6 +145,35 @@ public class NaturalLanguageService implements LanguageClientAware
 
 		configChangedSubscribers.add(codeLensService);
 		configChangedSubscribers.add(inlayHintProvider);
+
+		backgroundAnalysis.configChanged(initialConfig);
+		configChangedSubscribers.add(backgroundAnalysis);
+		if (initialized)
+		{
+			analyzeWorkspaceInBackground();
+		}
+	}
+
+	/**
+	 * Queues all files of the workspace for background analysis, open files first.
+	 */
+	private void analyzeWorkspaceInBackground()
+	{
+		if (!backgroundAnalysis.isEnabled())
+		{
+			return;
+		}
+
+		backgroundAnalysis.enqueueAll(openEditors.stream().map(this::findNaturalFile).filter(Objects::nonNull).toList(), BackgroundAnalysisQueue.Priority.OPEN_EDITOR);
+		backgroundAnalysis.enqueueAll(languageServerProject.libraries().stream().flatMap(l -> l.files().stream()).toList(), BackgroundAnalysisQueue.Priority.WORKSPACE);
+	}
+
+	private void backgroundAnalysisFinished()
+	{
+		if (pullDiagnostics)
+		{
+			refreshDiagnostics();
+		}
 	}
 
 	public void loadEditorConfig(Path path)
@@ -167,6 +210,11 @@ public class NaturalLanguageService implements LanguageClientAware
 	public static void setConfiguration(LSConfiguration configuration)
 	{
 		config = configuration;
+		if (configuration.getMemory() != null)
+		{
+			ParsedModuleCache.setMaxRetainedSyntaxTrees(configuration.getMemory().getMaxRetainedSyntaxTrees());
+		}
+
 		for (var sub : configChangedSubscribers)
 		{
 			try
@@ -182,19 +230,9 @@ public class NaturalLanguageService implements LanguageClientAware
 
 	public List<? extends SymbolInformation> findWorkspaceSymbols(String query, CancelChecker cancelChecker)
 	{
-		return project.getLibraries().stream()
-			.flatMap(l ->
-			{
-				cancelChecker.checkCanceled();
-				return l.files().stream();
-			})
-			.filter(f -> f.getReferableName().toLowerCase().contains(query.toLowerCase()))
-			.limit(100)
-			.map(f ->
-			{
-				cancelChecker.checkCanceled();
-				return convertToSymbolInformation(f);
-			})
+		cancelChecker.checkCanceled();
+		return languageServerProject.findModulesMatching(query, 100).stream()
+			.map(m -> convertToSymbolInformation(m.file().getNaturalFile()))
 			.toList();
 	}
 
@@ -228,14 +266,14 @@ public class NaturalLanguageService implements LanguageClientAware
 		// special case for the callnat string containing the called module
 		var node = NodeUtil.findTokenNodeAtPosition(filepath, position.getLine(), position.getCharacter(), module.syntaxTree());
 
-		var symbolToSearchFor = findTokenAtPosition(file, position); // TODO: Actually look for a node, could be ISymbolReferenceNode
+		var symbolToSearchFor = findTokenAtPosition(filepath, module, position); // TODO: Actually look for a node, could be ISymbolReferenceNode
 		var providedHover = hoverProvider.createHover(new HoverContext(node, symbolToSearchFor, file));
 		return providedHover != null ? providedHover : HoverProvider.EMPTY_HOVER;
 	}
 
-	private SyntaxToken findTokenAtPosition(LanguageServerFile file, Position position)
+	private SyntaxToken findTokenAtPosition(Path filepath, INaturalModule module, Position position)
 	{
-		var tokenNodeAtPosition = NodeUtil.findTokenNodeAtPosition(file.getPath(), position.getLine(), position.getCharacter(), file.module().syntaxTree());
+		var tokenNodeAtPosition = NodeUtil.findTokenNodeAtPosition(filepath, position.getLine(), position.getCharacter(), module.syntaxTree());
 		return tokenNodeAtPosition != null ? tokenNodeAtPosition.token() : null;
 	}
 
@@ -271,7 +309,7 @@ public class NaturalLanguageService implements LanguageClientAware
 		return signatureHelp.provideSignatureHelp(module, position);
 	}
 
-	public List<CompletionItem> complete(CompletionParams completionParams)
+	public CompletionList complete(CompletionParams completionParams)
 	{
 		try
 		{
@@ -280,7 +318,7 @@ public class NaturalLanguageService implements LanguageClientAware
 		catch (Exception e)
 		{
 			client.logMessage(ClientMessage.error(e.getMessage()));
-			return List.of();
+			return new CompletionList(List.of());
 		}
 	}
 
@@ -316,6 +354,14 @@ public class NaturalLanguageService implements LanguageClientAware
 
 	public void publishDiagnostics(LanguageServerFile file)
 	{
+		if (pullDiagnostics)
+		{
+			// The client pulls the diagnostics of the changed file itself, a refresh makes it pull the
+			// diagnostics of the other files again, which are only sent for files that changed.
+			refreshDiagnostics();
+			return;
+		}
+
 		publishDiagnosticsOfFile(file);
 		file.getIncomingReferences().forEach(this::publishDiagnosticsOfFile);
 		file.getOutgoingReferences().forEach(this::publishDiagnosticsOfFile);
@@ -323,7 +369,7 @@ public class NaturalLanguageService implements LanguageClientAware
 
 	private void publishDiagnosticsOfFile(LanguageServerFile file)
 	{
-		if (file.getNaturalFile().getFiletype() == NaturalFileType.DDM)
+		if (pullDiagnostics || file.getNaturalFile().getFiletype() == NaturalFileType.DDM)
 		{
 			return;
 		}
@@ -331,6 +377,44 @@ public class NaturalLanguageService implements LanguageClientAware
 		client.publishDiagnostics(new PublishDiagnosticsParams(file.getUri(), file.allDiagnostics()));
 	}
 
+	/**
+	 * Stops publishing diagnostics, because the client pulls them.
+	 *
+	 * @param refreshSupported whether the client can be asked to pull diagnostics again
+	 */
+	public void usePullDiagnostics(boolean refreshSupported)
+	{
+		pullDiagnostics = true;
+		diagnosticRefreshSupported = refreshSupported;
+	}
+
+	private void refreshDiagnostics()
+	{
+		if (diagnosticRefreshSupported)
+		{
+			client.refreshDiagnostics();
+		}
+	}
+
+	public DocumentDiagnosticReport documentDiagnostics(DocumentDiagnosticParams params)
+	{
+		var file = findNaturalFile(params.getTextDocument());
+		return pullDiagnosticsProvider.documentReport(file, params.getPreviousResultId());
+	}
+
+	public WorkspaceDiagnosticReport workspaceDiagnostics(WorkspaceDiagnosticParams params)
+	{
+		var files = languageServerProject.libraries().stream().flatMap(l -> l.files().stream()).toList();
+		var partialResultToken = params.getPartialResultToken();
+		return pullDiagnosticsProvider.workspaceReport(
+			files,
+			params.getPreviousResultIds() != null ? params.getPreviousResultIds() : List.of(),
+			partialResultToken == null
+				? null
+				: reports -> client.notifyProgress(new ProgressParams(partialResultToken, Either.forRight(new WorkspaceDiagnosticReportPartialResult(reports))))
+		);
+	}
+
 	@Override
 	public void connect(LanguageClient client)
 	{
@@ -348,25 +432,97 @@ public class NaturalLanguageService implements LanguageClientAware
 		file.save();
 		publishDiagnostics(file);
 		client.refreshCodeLenses();
+		backgroundAnalysis.enqueueAll(file.getIncomingReferences(), BackgroundAnalysisQueue.Priority.CALLER_OF_CHANGED_MODULE);
 	}
 
-	public void fileExternallyChanged(Path path)
+	/**
+	 * Applies a batch of changes made outside of open editors.<br/>
+	 * Files are added and removed first. Afterward all created and changed files are parsed in one parallel pass in
+	 * dependency order, and the open files are reparsed once.
+	 */
+	void watchedFilesChanged(WatchedFileChanges changes)
 	{
-		if (openEditors.contains(path))
+		if (changes.isEmpty())
 		{
-			// Already handled by `fileSaved`
 			return;
 		}
 
-		var file = findNaturalFile(path);
-		file.parseWithoutCallers();
+		for (var path : changes.deleted())
+		{
+			try
+			{
+				var file = findNaturalFile(path);
+				if (file != null)
+				{
+					removeFile(file);
+				}
+			}
+			catch (Exception e)
+			{
+				log.log(Level.SEVERE, "Could not remove deleted file %s".formatted(path), e);
+			}
+		}
+
+		var filesToParse = new ArrayList<LanguageServerFile>();
+		for (var path : changes.created())
+		{
+			addWatchedFile(path, filesToParse);
+		}
+
+		for (var path : changes.changed())
+		{
+			if (openEditors.contains(path))
+			{
+				// Already handled by `fileSaved`
+				continue;
+			}
+
+			var file = findNaturalFile(path);
+			if (file == null)
+			{
+				// Deleted and created again within the batch, but we didn't know it before
+				addWatchedFile(path, filesToParse);
+			}
+			else
+			{
+				filesToParse.add(file);
+			}
+		}
+
+		// Errors are handled per file by the ParseScheduler, the open files are reparsed in any case
+		try
+		{
+			var monitor = new NullProgressMonitor();
+			ParseScheduler.parseAll(filesToParse, monitor, f ->
+			{});
+			ParseScheduler.forEachInParallel(filesToParse.stream().filter(f -> !f.getType().canHaveDefineData()).toList(), monitor, LanguageServerFile::parseWithoutCallers);
+		}
+		finally
+		{
+			reparseOpenFiles();
+		}
 	}
 
-	public void fileDeleted(Path path)
+	private void addWatchedFile(Path path, List<LanguageServerFile> filesToParse)
+	{
+		try
+		{
+			filesToParse.add(languageServerProject.addFile(path));
+		}
+		catch (Exception e)
+		{
+			log.log(Level.SEVERE, "Could not add created file %s".formatted(path), e);
+		}
+	}
+
+	private void removeFile(LanguageServerFile file)
 	{
-		var file = findNaturalFile(path);
 		languageServerProject.removeFile(file);
-		reparseOpenFiles();
+		constantsIndex.remove(file);
+		semanticTokensProvider.forget(file);
+		pullDiagnosticsProvider.forget(file);
+		backgroundAnalysis.remove(file);
+		WorkspaceSources.invalidate(file.getPath());
 	}
 
 	public void fileClosed(Path path)
@@ -380,6 +536,7 @@ public class NaturalLanguageService implements LanguageClientAware
 		openEditors.remove(path);
 
 		file.close();
+		semanticTokensProvider.forget(file);
 		publishDiagnostics(file);
 	}
 
@@ -412,32 +569,15 @@ public class NaturalLanguageService implements LanguageClientAware
 
 	public void parseAll(IProgressMonitor monitor)
 	{
-		var libraries = languageServerProject.libraries();
-		var params = new WorkDoneProgressCreateParams();
-		var token = UUID.randomUUID().toString();
-		params.setToken(token);
-
 		monitor.progress("Parse whole Natural Project", 0);
 
-		var fileCount = libraries.stream().map(l -> (long) l.files().size()).mapToLong(l -> l).sum();
-		var filesParsed = 0;
-		for (var lib : libraries)
+		var files = languageServerProject.libraries().stream().flatMap(l -> l.files().stream()).toList();
+		// Every file gets parsed, so publishing the diagnostics of the file itself is enough.
+		// Publishing the references too would read files that are being parsed on other threads.
+		ParseScheduler.parseAll(files, monitor, this::publishDiagnosticsOfFile);
+		if (pullDiagnostics)
 		{
-			for (var file : lib.files())
-			{
-				if (!file.getType().canHaveDefineData())
-				{
-					filesParsed++;
-					continue;
-				}
-				var qualifiedName = "%s.%s".formatted(lib.name(), file.getReferableName());
-
-				var percentage = (int) (filesParsed * 100 / fileCount);
-				monitor.progress(qualifiedName, percentage);
-				file.parse();
-				publishDiagnostics(file);
-				filesParsed++;
-			}
+			refreshDiagnostics();
 		}
 
 		monitor.progress("Done", 100);
@@ -460,10 +600,15 @@ public class NaturalLanguageService implements LanguageClientAware
 	private void preParseDataAreas(IProgressMonitor monitor)
 	{
 		monitor.progress("Preparsing data areas", 0);
-		languageServerProject.libraries().stream().flatMap(l -> l.files().stream().filter(f -> f.getType() == NaturalFileType.LDA || f.getType() == NaturalFileType.PDA))
-			.parallel()
-			.peek(f -> monitor.progress("Parsing data areas %s".formatted(f.getReferableName())))
-			.forEach(f -> f.parse(ParseStrategy.WITHOUT_CALLERS));
+		var dataAreas = languageServerProject.libraries().stream().flatMap(l -> l.files().stream().filter(f -> f.getType() == NaturalFileType.LDA || f.getType() == NaturalFileType.PDA))
+			.toList();
+		ParseScheduler.forEachInParallel(dataAreas, monitor, f ->
+		{
+			monitor.progress("Parsing data areas %s".formatted(f.getReferableName()));
+			f.parse(ParseStrategy.WITHOUT_CALLERS);
+			// Warm up the index, so that the first request for constants doesn't have to extract them
+			constantsIndex.constantsOf(f);
+		});
 		log.info("preParseDataAreas done");
 	}
 
@@ -530,19 +675,28 @@ public class NaturalLanguageService implements LanguageClientAware
 	public List<CodeAction> codeAction(CodeActionParams params)
 	{
 		var file = findNaturalFile(LspUtil.uriToPath(params.getTextDocument().getUri()));
-		var token = findTokenAtPosition(file, params.getRange().getStart());
-		var nodeAtStart = NodeUtil.findNodeAtPosition(params.getRange().getStart().getLine(), params.getRange().getStart().getCharacter(), file.module());
+		// Use the same module for every lookup, the file might get reparsed while we're creating code actions
+		var module = file.module();
+		var token = findTokenAtPosition(file.getPath(), module, params.getRange().getStart());
+		var nodeAtStart = NodeUtil.findNodeAtPosition(params.getRange().getStart().getLine(), params.getRange().getStart().getCharacter(), module);
 		if (nodeAtStart == null && params.getRange().getStart().equals(params.getRange().getEnd()))
 		{
 			return List.of();
 		}
-		var nodeAtEnd = NodeUtil.findNodeAtPosition(params.getRange().getEnd().getLine(), params.getRange().getEnd().getCharacter(), file.module());
+		var nodeAtEnd = NodeUtil.findNodeAtPosition(params.getRange().getEnd().getLine(), params.getRange().getEnd().getCharacter(), module);
 
 		var diagnosticsAtPosition = file.diagnosticsInRange(params.getRange());
-		var statementUnderCursor = nodeAtStart instanceof IStatementNode statement
-			? statement
-			: NodeUtil.findFirstParentOfType(nodeAtStart, IStatementNode.class);
-		var context = new RefactoringContext(params.getTextDocument().getUri(), file.module(), file, this, token, params.getRange(), nodeAtStart, nodeAtEnd, statementUnderCursor, diagnosticsAtPosition);
+		IStatementNode statementUnderCursor = null;
+		if (nodeAtStart instanceof IStatementNode statement)
+		{
+			statementUnderCursor = statement;
+		}
+		else
+			if (nodeAtStart != null)
+			{
+				statementUnderCursor = nodeAtStart.enclosingContext().statement();
+			}
+		var context = new RefactoringContext(params.getTextDocument().getUri(), module, file, this, token, params.getRange(), nodeAtStart, nodeAtEnd, statementUnderCursor, diagnosticsAtPosition);
 
 		return codeActionRegistry.createCodeActions(context);
 	}
@@ -552,11 +706,12 @@ public class NaturalLanguageService implements LanguageClientAware
 		var path = LspUtil.uriToPath(params.getTextDocument().getUri());
 		var file = findNaturalFile(path);
 
-		var node = NodeUtil.findTokenNodeAtPosition(path, params.getPosition().getLine(), params.getPosition().getCharacter(), file.module().syntaxTree());
+		var module = file.module();
+		var node = NodeUtil.findTokenNodeAtPosition(path, params.getPosition().getLine(), params.getPosition().getCharacter(), module.syntaxTree());
 		if (node == null)
 		{
 			if (file.getType() == NaturalFileType.FUNCTION
-				&& file.module()instanceof IFunction function
+				&& module instanceof IFunction function
 				&& function.functionName() != null
 				&& positionEnclosesOther(function.functionName(), params.getPosition()))
 			{
@@ -775,6 +930,7 @@ public class NaturalLanguageService implements LanguageClientAware
 	public void setInitialized()
 	{
 		this.initialized = true;
+		analyzeWorkspaceInBackground();
 	}
 
 	private static <T> T extractJsonObject(Object obj, Class<T> clazz)
@@ -807,6 +963,11 @@ public class NaturalLanguageService implements LanguageClientAware
 				file.parseWithoutCallers();
 				publishDiagnosticsOfFile(file);
 			}
+
+			if (pullDiagnostics)
+			{
+				refreshDiagnostics();
+			}
 		});
 	}
 
@@ -837,18 +998,34 @@ public class NaturalLanguageService implements LanguageClientAware
 
 		if (currentFile != null)
 		{
-			var finder = new ConstantsFinder();
+			var finder = new ConstantsFinder(constantsIndex);
 			response.setConstants(finder.findConstants(currentFile));
 		}
 
 		return response;
 	}
 
+	public SemanticTokens semanticTokens(SemanticTokensParams params)
+	{
+		return semanticTokensProvider.full(findNaturalFile(params.getTextDocument()));
+	}
+
+	public Either<SemanticTokens, SemanticTokensDelta> semanticTokensDelta(SemanticTokensDeltaParams params)
+	{
+		return semanticTokensProvider.delta(findNaturalFile(params.getTextDocument()), params.getPreviousResultId());
+	}
+
+	public SemanticTokens semanticTokensRange(SemanticTokensRangeParams params)
+	{
+		return semanticTokensProvider.range(findNaturalFile(params.getTextDocument()), params.getRange());
+	}
+
 	public List<FoldingRange> folding(FoldingRangeRequestParams params)
 	{
 		var file = findNaturalFile(params.getTextDocument());
-		var visitor = new FoldingVisitor(file.module());
-		file.module().syntaxTree().acceptNodeVisitor(visitor);
+		var module = file.module();
+		var visitor = new FoldingVisitor(module);
+		module.syntaxTree().acceptNodeVisitor(visitor);
 		return visitor.getFoldings();
 	}
 
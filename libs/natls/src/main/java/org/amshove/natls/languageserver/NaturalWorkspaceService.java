@@ -3,18 +3,17 @@ package org.amshove.natls.languageserver;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import org.amshove.natls.config.LSConfiguration;
-import org.amshove.natparse.natural.project.NaturalFileType;
 import org.eclipse.lsp4j.*;
 import org.eclipse.lsp4j.jsonrpc.CompletableFutures;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.lsp4j.services.WorkspaceService;
 
-import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static org.amshove.natls.SafeWrap.wrapSafe;
+
 public class NaturalWorkspaceService implements WorkspaceService
 {
 	private static final Logger log = Logger.getAnonymousLogger();
@@ -29,6 +28,12 @@ public class NaturalWorkspaceService implements WorkspaceService
 		NaturalLanguageService.setConfiguration(configuration);
 	}
 
+	@Override
+	public CompletableFuture<WorkspaceDiagnosticReport> diagnostic(WorkspaceDiagnosticParams params)
+	{
+		return wrapSafe(() -> CompletableFuture.supplyAsync(() -> languageService.workspaceDiagnostics(params)));
+	}
+
 	@Override
 	public CompletableFuture<WorkspaceEdit> willRenameFiles(RenameFilesParams params)
 	{
@@ -48,57 +53,12 @@ public class NaturalWorkspaceService implements WorkspaceService
 	public void didChangeWatchedFiles(DidChangeWatchedFilesParams params)
 	{
 		log.fine("didChangeWatchedFiles start");
-		var changedModules = 0;
-		for (var change : params.getChanges())
-		{
-			try
-			{
-				var filepath = LspUtil.uriToPath(change.getUri());
-
-				var isNaturalModule = NaturalFileType.isNaturalFile(filepath);
-				if (isNaturalModule)
-				{
-					changedModules++;
-					handleNaturalModuleChange(filepath, change);
-				}
-			}
-			catch (Exception e)
-			{
-				log.log(Level.SEVERE, "Error during changed watched file changed (%s), skipping file %s".formatted(change.getType(), change.getUri()), e);
-			}
-		}
-
-		if (changedModules > 0)
-		{
-			languageService.reparseOpenFiles();
-		}
-
+		var changes = WatchedFileChanges.coalesce(params.getChanges());
+		log.fine(() -> "Coalesced %d events to %d created, %d changed and %d deleted modules".formatted(params.getChanges().size(), changes.created().size(), changes.changed().size(), changes.deleted().size()));
+		languageService.watchedFilesChanged(changes);
 		log.fine(() -> "didChangeWatchedFiles end");
 	}
 
-	private void handleNaturalModuleChange(Path filepath, FileEvent change)
-	{
-		log.fine(() -> "Handling watched natural module change: %s".formatted(filepath));
-		switch (change.getType())
-		{
-			case Created ->
-			{
-				log.fine("Module is new, adding to project");
-				languageService.createdFile(change.getUri());
-			}
-			case Changed ->
-			{
-				log.fine("Module is saved or externally changed, reparsing with callers");
-				languageService.fileExternallyChanged(filepath);
-			}
-			case Deleted ->
-			{
-				log.fine("Module is deleted, removing");
-				languageService.fileDeleted(filepath);
-			}
-		}
-	}
-
 	@Override
 	public CompletableFuture<Either<List<? extends SymbolInformation>, List<? extends WorkspaceSymbol>>> symbol(WorkspaceSymbolParams params)
 	{
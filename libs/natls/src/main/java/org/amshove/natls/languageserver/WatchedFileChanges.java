@@ -0,0 +1,76 @@
+package org.amshove.natls.languageserver;
+
+import org.amshove.natparse.natural.project.NaturalFileType;
+import org.eclipse.lsp4j.FileChangeType;
+import org.eclipse.lsp4j.FileEvent;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The net effect of a batch of watched file events on Natural modules.<br/>
+ * Multiple events for the same path are merged into one, e.g. a file that is created and deleted within the same batch
+ * doesn't show up at all.
+ */
+record WatchedFileChanges(List<Path> created, List<Path> changed, List<Path> deleted)
+{
+	boolean isEmpty()
+	{
+		return created.isEmpty() && changed.isEmpty() && deleted.isEmpty();
+	}
+
+	private static final Logger log = Logger.getAnonymousLogger();
+
+	static WatchedFileChanges coalesce(List<FileEvent> events)
+	{
+		var changesByPath = new LinkedHashMap<Path, FileChangeType>();
+		for (var event : events)
+		{
+			try
+			{
+				var path = LspUtil.uriToPath(event.getUri());
+				if (NaturalFileType.isNaturalFile(path))
+				{
+					changesByPath.merge(path, event.getType(), WatchedFileChanges::merge);
+				}
+			}
+			catch (Exception e)
+			{
+				log.log(Level.SEVERE, "Error during changed watched file changed (%s), skipping file %s".formatted(event.getType(), event.getUri()), e);
+			}
+		}
+
+		var created = new ArrayList<Path>();
+		var changed = new ArrayList<Path>();
+		var deleted = new ArrayList<Path>();
+		changesByPath.forEach((path, type) ->
+		{
+			switch (type)
+			{
+				case Created -> created.add(path);
+				case Changed -> changed.add(path);
+				case Deleted -> deleted.add(path);
+			}
+		});
+		return new WatchedFileChanges(created, changed, deleted);
+	}
+
+	/**
+	 * Merges a later event into the change known so far. Returns {@code null} if the events cancel each other out.
+	 */
+	private static FileChangeType merge(FileChangeType previous, FileChangeType next)
+	{
+		return switch (previous)
+		{
+			// The file didn't exist before the batch, so whatever happens to it afterward it's either new or gone
+			case Created -> next == FileChangeType.Deleted ? null : FileChangeType.Created;
+			case Changed -> next == FileChangeType.Deleted ? FileChangeType.Deleted : FileChangeType.Changed;
+			// The file existed before the batch and exists again afterward, so its content changed
+			case Deleted -> next == FileChangeType.Deleted ? FileChangeType.Deleted : FileChangeType.Changed;
+		};
+	}
+}
@@ -0,0 +1,82 @@
+package org.amshove.natls.languageserver.constantfinding;
+
+import org.amshove.natls.project.LanguageServerFile;
+import org.amshove.natls.project.ParseLevel;
+import org.amshove.natparse.natural.*;
+import org.amshove.natparse.natural.project.NaturalFileType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the constants defined by each LDA.<br/>
+ * Entries are tied to the {@link LanguageServerFile#version()} of the LDA they've been extracted from and get extracted
+ * again once the LDA has been reparsed.
+ */
+public class ConstantsIndex
+{
+	private record IndexedConstants(long version, List<FoundConstant> constants)
+	{}
+
+	private final Map<LanguageServerFile, IndexedConstants> constantsByDataArea = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the constants defined in the given LDA, parsing its DEFINE DATA only if it changed since the last call.
+	 */
+	public List<FoundConstant> constantsOf(LanguageServerFile dataArea)
+	{
+		if (dataArea.getType() != NaturalFileType.LDA)
+		{
+			return List.of();
+		}
+
+		// Read the version before parsing. If the LDA gets reparsed in between, the entry is tagged with an older
+		// version than its constants and is extracted again on the next call, instead of never being refreshed.
+		var version = dataArea.version();
+		var indexed = constantsByDataArea.get(dataArea);
+		if (indexed != null && indexed.version() == version)
+		{
+			return indexed.constants();
+		}
+
+		var module = dataArea.module(ParseLevel.DEFINE_DATA);
+		var constants = extractConstants(dataArea, module);
+		constantsByDataArea.put(dataArea, new IndexedConstants(version, constants));
+		return constants;
+	}
+
+	public void remove(LanguageServerFile dataArea)
+	{
+		constantsByDataArea.remove(dataArea);
+	}
+
+	private List<FoundConstant> extractConstants(LanguageServerFile dataArea, INaturalModule module)
+	{
+		if (!(module instanceof IHasDefineData hasDefineData) || hasDefineData.defineData() == null)
+		{
+			return List.of();
+		}
+
+		return hasDefineData.defineData()
+			.variables()
+			.stream()
+			.filter(ITypedVariableNode.class::isInstance)
+			.map(v -> ((ITypedVariableNode) v))
+			.filter(tv -> tv.type().isConstant())
+			.map(tv -> new FoundConstant(tv.declaration().symbolName(), dataArea.getReferableName(), extractValue(tv)))
+			.toList();
+	}
+
+	private String extractValue(ITypedVariableNode variable)
+	{
+		var valueNode = variable.type().initialValue();
+
+		return switch (valueNode)
+		{
+			case ILiteralNode literal -> literal.token().source();
+			case IStringConcatOperandNode concat -> "'" + concat.stringValue() + "'";
+			case null, default -> "";
+		};
+	}
+}
@@ -0,0 +1,265 @@
+package org.amshove.natls.project;
+
+import org.amshove.natls.config.AnalysisConfiguration;
+import org.amshove.natls.config.IConfigChangedSubscriber;
+import org.amshove.natls.config.LSConfiguration;
+import org.amshove.natparse.natural.project.NaturalFileType;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Analyzes files in the background, so that diagnostics are available for the whole workspace and not only for open
+ * files.<br/>
+ * Files are analyzed by priority, see {@link Priority}. Workers run with low thread priority and step back while
+ * interactive requests are being handled or the heap is fuller than configured.
+ */
+public class BackgroundAnalysisQueue implements IConfigChangedSubscriber
+{
+	private static final Logger log = Logger.getAnonymousLogger();
+	private static final long INTERACTIVE_PAUSE_MILLIS = 50;
+	private static final long MEMORY_PAUSE_MILLIS = 1000;
+	// Workspace files are dropped after this many pauses, they get analyzed once they're opened or a callee changes
+	private static final int MAX_MEMORY_PAUSES = 5;
+	// How long an idle worker waits for files before checking whether it has been shut down
+	private static final long IDLE_POLL_MILLIS = 1000;
+	private static final AtomicInteger interactiveRequestsInFlight = new AtomicInteger();
+
+	public enum Priority
+	{
+		OPEN_EDITOR,
+		CALLER_OF_CHANGED_MODULE,
+		WORKSPACE
+	}
+
+	private record QueuedAnalysis(LanguageServerFile file, Priority priority, long sequence, int memoryPauses)
+	{}
+
+	private static final Comparator<QueuedAnalysis> ANALYSIS_ORDER = Comparator
+		.comparing(QueuedAnalysis::priority)
+		.thenComparingLong(QueuedAnalysis::sequence);
+
+	private final PriorityBlockingQueue<QueuedAnalysis> queue = new PriorityBlockingQueue<>(64, ANALYSIS_ORDER);
+	// The entry that is currently valid for a file. Entries that were replaced by a higher priority stay in the queue and are skipped.
+	private final Map<LanguageServerFile, QueuedAnalysis> pending = new ConcurrentHashMap<>();
+	private final AtomicLong sequence = new AtomicLong();
+	private final AtomicInteger analysesRunning = new AtomicInteger();
+	private final Consumer<LanguageServerFile> onAnalyzed;
+	private final Runnable onIdle;
+
+	private ExecutorService workers;
+	private int workerCount;
+	private volatile int maxHeapUsagePercent = 100;
+
+	/**
+	 * @param onAnalyzed called after a file has been analyzed, on the worker thread
+	 * @param onIdle called when the last queued file has been analyzed
+	 */
+	public BackgroundAnalysisQueue(Consumer<LanguageServerFile> onAnalyzed, Runnable onIdle)
+	{
+		this.onAnalyzed = onAnalyzed;
+		this.onIdle = onIdle;
+	}
+
+	/**
+	 * Marks the start of a request the user is waiting for. Background analysis pauses until all started requests are
+	 * finished.
+	 */
+	public static void interactiveRequestStarted()
+	{
+		interactiveRequestsInFlight.incrementAndGet();
+	}
+
+	public static void interactiveRequestFinished()
+	{
+		interactiveRequestsInFlight.decrementAndGet();
+	}
+
+	@Override
+	public void configChanged(LSConfiguration newConfig)
+	{
+		var analysis = newConfig.getAnalysis() != null ? newConfig.getAnalysis() : new AnalysisConfiguration();
+		configure(analysis.isBackground() ? Math.max(1, analysis.getMaxWorkers()) : 0, analysis.getMaxHeapUsagePercent());
+	}
+
+	private synchronized void configure(int newWorkerCount, int newMaxHeapUsagePercent)
+	{
+		maxHeapUsagePercent = newMaxHeapUsagePercent;
+		if (newWorkerCount == workerCount)
+		{
+			return;
+		}
+
+		if (workers != null)
+		{
+			// Running analyses are finished, interrupting them would abort a parse in the middle
+			workers.shutdown();
+			workers = null;
+		}
+
+		workerCount = newWorkerCount;
+		if (workerCount == 0)
+		{
+			queue.clear();
+			pending.clear();
+			return;
+		}
+
+		workers = Executors.newFixedThreadPool(workerCount, runnable ->
+		{
+			var thread = new Thread(runnable, "natls-background-analysis");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+		var pool = workers;
+		for (var i = 0; i < workerCount; i++)
+		{
+			workers.submit(() -> work(pool));
+		}
+	}
+
+	public synchronized boolean isEnabled()
+	{
+		return workerCount > 0;
+	}
+
+	/**
+	 * Queues the file for analysis. If the file is already queued with a lower priority, its priority is raised.
+	 */
+	public void enqueue(LanguageServerFile file, Priority priority)
+	{
+		enqueue(file, priority, 0);
+	}
+
+	private void enqueue(LanguageServerFile file, Priority priority, int memoryPauses)
+	{
+		if (!isEnabled() || file.getType() == NaturalFileType.DDM)
+		{
+			return;
+		}
+
+		pending.compute(file, (f, queued) ->
+		{
+			if (queued != null && queued.priority().compareTo(priority) <= 0)
+			{
+				return queued;
+			}
+
+			var analysis = new QueuedAnalysis(file, priority, sequence.incrementAndGet(), memoryPauses);
+			queue.add(analysis);
+			return analysis;
+		});
+	}
+
+	public void enqueueAll(Collection<LanguageServerFile> files, Priority priority)
+	{
+		for (var file : files)
+		{
+			enqueue(file, priority);
+		}
+	}
+
+	public void remove(LanguageServerFile file)
+	{
+		pending.remove(file);
+	}
+
+	private void work(ExecutorService pool)
+	{
+		while (!pool.isShutdown())
+		{
+			try
+			{
+				var next = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (next == null)
+				{
+					continue;
+				}
+
+				analysesRunning.incrementAndGet();
+				try
+				{
+					if (pending.remove(next.file(), next))
+					{
+						analyze(next);
+					}
+				}
+				finally
+				{
+					if (analysesRunning.decrementAndGet() == 0 && queue.isEmpty())
+					{
+						onIdle.run();
+					}
+				}
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				return;
+			}
+			catch (Exception e)
+			{
+				log.log(Level.SEVERE, "Background analysis failed", e);
+			}
+		}
+	}
+
+	private void analyze(QueuedAnalysis analysis) throws InterruptedException
+	{
+		while (interactiveRequestsInFlight.get() > 0)
+		{
+			Thread.sleep(INTERACTIVE_PAUSE_MILLIS);
+		}
+
+		var file = analysis.file();
+		if (file.isOpen() && file.isParsedTo(ParseLevel.ANALYZED))
+		{
+			// Open files are reparsed from the editor's buffer on every change, analyzing them again would only repeat that
+			return;
+		}
+
+		if (analysis.priority() == Priority.WORKSPACE)
+		{
+			if (file.isParsedTo(ParseLevel.ANALYZED))
+			{
+				return;
+			}
+
+			if (exceedsMemoryBudget())
+			{
+				if (analysis.memoryPauses() >= MAX_MEMORY_PAUSES)
+				{
+					log.fine(() -> "Skipping background analysis of %s, the heap stays above %d%%".formatted(file.getPath(), maxHeapUsagePercent));
+					return;
+				}
+
+				// Give the syntax tree cache and garbage collector time before continuing with less important files
+				Thread.sleep(MEMORY_PAUSE_MILLIS);
+				enqueue(file, analysis.priority(), analysis.memoryPauses() + 1);
+				return;
+			}
+		}
+
+		file.parseWithoutCallers();
+		onAnalyzed.accept(file);
+	}
+
+	private boolean exceedsMemoryBudget()
+	{
+		var runtime = Runtime.getRuntime();
+		var usedMemory = runtime.totalMemory() - runtime.freeMemory();
+		return usedMemory * 100 / runtime.maxMemory() > maxHeapUsagePercent;
+	}
+}
@@ -0,0 +1,26 @@
+package org.amshove.natls.project;
+
+import org.amshove.natparse.lexing.TokenList;
+import org.amshove.natparse.natural.INaturalModule;
+import org.eclipse.lsp4j.Diagnostic;
+
+import java.util.List;
+
+/**
+ * An immutable, consistent state of a {@link LanguageServerFile}.<br/>
+ * A new snapshot is published after every parse, so readers that hold on to a snapshot never see a module that is still
+ * being built or tokens that belong to another version of the source.
+ *
+ * @param version increases with every published snapshot of the same file
+ * @param level how far the module has been parsed, {@code null} if it hasn't been parsed yet
+ * @param module the parsed module
+ * @param tokens the tokens the module has been parsed from, {@code null} if they have been dropped
+ * @param diagnostics the diagnostics of the file at the time the snapshot was published
+ */
+public record FileSnapshot(long version, ParseLevel level, INaturalModule module, TokenList tokens, List<Diagnostic> diagnostics)
+{
+	public boolean isParsedTo(ParseLevel requestedLevel)
+	{
+		return module != null && level != null && level.includes(requestedLevel);
+	}
+}
@@ -7,7 +7,10 @@ import org.amshove.natls.languageserver.LspUtil;
 import org.amshove.natls.progress.IProgressMonitor;
 import org.amshove.natls.progress.NullProgressMonitor;
 import org.amshove.natparse.IDiagnostic;
+import org.amshove.natparse.IPosition;
+import org.amshove.natparse.NodeUtil;
 import org.amshove.natparse.ReadOnlyList;
+import org.amshove.natparse.infrastructure.ISourceProvider;
 import org.amshove.natparse.lexing.Lexer;
 import org.amshove.natparse.lexing.SyntaxToken;
 import org.amshove.natparse.lexing.TokenList;
@@ -27,28 +30,35 @@ import org.eclipse.lsp4j.Range;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
 
 public class LanguageServerFile implements IModuleProvider
 {
 	private static final Logger log = LoggerFactory.getLogger(LanguageServerFile.class);
 	private final NaturalFile file;
-	private final Map<String, List<Diagnostic>> diagnosticsByTool = new HashMap<>();
-	private INaturalModule module;
+	// Concurrent queues, because a file can get diagnostics from the ParseScheduler while requests read them
+	private final Map<String, Queue<Diagnostic>> diagnosticsByTool = new ConcurrentHashMap<>();
+	// Swapped as a whole after every parse, readers never see a partially parsed module
+	private volatile FileSnapshot snapshot = new FileSnapshot(0, null, null, null, List.of());
 	private LanguageServerLibrary library;
-	private final Set<LanguageServerFile> outgoingReferences = new HashSet<>();
-	private final Set<LanguageServerFile> incomingReferences = new HashSet<>();
-	private TokenList tokens;
+	// Concurrent, because callers and callees can be parsed in parallel by the ParseScheduler
+	private final Set<LanguageServerFile> outgoingReferences = ConcurrentHashMap.newKeySet();
+	private final Set<LanguageServerFile> incomingReferences = ConcurrentHashMap.newKeySet();
 
-	private byte[] defineDataHash;
-	private boolean hasBeenAnalyzed;
+	// Held while the module is (re)parsed, analyzed or evicted, so that these don't interleave for the same file.
+	// It is never waited for while holding the lock of another file, callers are reparsed after releasing it.
+	private final ReentrantLock parseLock = new ReentrantLock();
+
+	private volatile byte[] defineDataHash;
+	private volatile boolean isOpen;
 
 	public LanguageServerFile(NaturalFile file)
 	{
@@ -90,9 +100,9 @@ public class LanguageServerFile implements IModuleProvider
 		getDiagnosticsByTool(tool.getId()).clear();
 	}
 
-	private List<Diagnostic> getDiagnosticsByTool(String tool)
+	private Queue<Diagnostic> getDiagnosticsByTool(String tool)
 	{
-		return diagnosticsByTool.computeIfAbsent(tool, (k) -> new ArrayList<>());
+		return diagnosticsByTool.computeIfAbsent(tool, (k) -> new ConcurrentLinkedQueue<>());
 	}
 
 	public String getUri()
@@ -107,35 +117,51 @@ public class LanguageServerFile implements IModuleProvider
 
 	public void open()
 	{
+		isOpen = true;
+		ParsedModuleCache.remove(this);
+
 		// Always reparse on open. In the past, some files weren't analyzed correctly because
 		// they've been parsed on another path. This resulted in diagnostics not showing up.
 		parse(ParseStrategy.WITHOUT_CALLERS);
 
-		if (!hasBeenAnalyzed || allDiagnostics().isEmpty())
+		if (!isParsedTo(ParseLevel.ANALYZED) || allDiagnostics().isEmpty())
 		{
 			analyze();
 		}
 	}
 
+	public boolean isOpen()
+	{
+		return isOpen;
+	}
+
 	public void close()
 	{
-		//		module = null;
-		//		clearDiagnosticsByTool(DiagnosticTool.NATPARSE);
+		isOpen = false;
+		WorkspaceSources.removeOverlay(file.getPath());
+		if (isParsedTo(ParseLevel.BODY))
+		{
+			// The syntax tree is now allowed to be evicted if it isn't used anymore
+			markSyntaxTreeAsUsed();
+		}
 	}
 
 	public void changed(String newSource)
 	{
+		// Diagnostics of natparse and natlint are cleared while holding the parse lock
 		clearDiagnosticsByTool(DiagnosticTool.CATALOG);
-		clearDiagnosticsByTool(DiagnosticTool.NATLINT);
-		clearDiagnosticsByTool(DiagnosticTool.NATPARSE);
-		parseAndAnalyze(newSource, ParseStrategy.WITH_CALLERS);
+		if (isOpen)
+		{
+			WorkspaceSources.overlay(file.getPath(), newSource);
+		}
+		// Edits mostly happen within the body, so an unchanged DEFINE DATA can be kept
+		parseAndAnalyze(newSource, ParseStrategy.WITH_CALLERS, true);
 	}
 
 	public void save()
 	{
 		clearDiagnosticsByTool(DiagnosticTool.CATALOG);
-		clearDiagnosticsByTool(DiagnosticTool.NATLINT);
-		clearDiagnosticsByTool(DiagnosticTool.NATPARSE);
+		WorkspaceSources.removeOverlay(file.getPath());
 		parse();
 	}
 
@@ -143,7 +169,7 @@ public class LanguageServerFile implements IModuleProvider
 	{
 		try
 		{
-			parseAndAnalyze(Files.readString(file.getPath()), strategy);
+			parseAndAnalyze(WorkspaceSources.read(file.getPath()), strategy, false);
 		}
 		catch (Exception e)
 		{
@@ -171,41 +197,52 @@ public class LanguageServerFile implements IModuleProvider
 		parse(ParseStrategy.WITHOUT_CALLERS);
 	}
 
-	private boolean hasToReparseCallers(String newSource)
+	private boolean hasToReparseCallers(byte[] previousDefineDataHash)
 	{
 		var tooManyCallers = incomingReferences.size() > 20;
-		if (!tooManyCallers && module.file().getFiletype() == NaturalFileType.COPYCODE)
+		if (!tooManyCallers && file.getFiletype() == NaturalFileType.COPYCODE)
 		{
 			return true;
 		}
 
-		var newDefineDataHash = hashDefineData(newSource);
-		var defineDataChanged = !Arrays.equals(newDefineDataHash, defineDataHash);
-		defineDataHash = newDefineDataHash;
-
+		var defineDataChanged = !Arrays.equals(previousDefineDataHash, defineDataHash);
 		return !tooManyCallers && defineDataChanged;
 	}
 
-	private void parseAndAnalyze(String source, ParseStrategy strategy)
+	private void parseAndAnalyze(String source, ParseStrategy strategy, boolean reuseDefineData)
 	{
 		try
 		{
-			var previousCallers = module != null ? module.callers() : ReadOnlyList.<IModuleReferencingNode> from(List.of());
-			reparseWithoutAnalyzing(source);
+			boolean reparseCallers;
+			parseLock.lock();
+			try
+			{
+				var previousModule = snapshot.module();
+				var previousCallers = previousModule != null ? previousModule.callers() : ReadOnlyList.<IModuleReferencingNode> from(List.of());
+				var previousDefineDataHash = defineDataHash;
+				reparseWithoutAnalyzing(source, reuseDefineData);
 
-			analyze();
-			hasBeenAnalyzed = true;
+				analyze();
+				publish(ParseLevel.ANALYZED, snapshot.module(), snapshot.tokens());
 
-			if (strategy != ParseStrategy.WITHOUT_CALLERS && hasToReparseCallers(source))
+				reparseCallers = strategy != ParseStrategy.WITHOUT_CALLERS && hasToReparseCallers(previousDefineDataHash);
+				if (!reparseCallers)
+				{
+					var module = snapshot.module();
+					for (var previousCaller : previousCallers)
+					{
+						module.addCaller(previousCaller);
+					}
+				}
+			}
+			finally
 			{
-				reparseCallers();
+				parseLock.unlock();
 			}
-			else
+
+			if (reparseCallers)
 			{
-				for (var previousCaller : previousCallers)
-				{
-					module.addCaller(previousCaller);
-				}
+				reparseCallers();
 			}
 		}
 		catch (Exception e)
@@ -227,6 +264,7 @@ public class LanguageServerFile implements IModuleProvider
 	private void analyze()
 	{
 		clearDiagnosticsByTool(DiagnosticTool.NATLINT);
+		var module = snapshot.module();
 		if (module.programmingMode() == NaturalProgrammingMode.REPORTING)
 		{
 			// Reporting mode not supported by natparse
@@ -251,20 +289,12 @@ public class LanguageServerFile implements IModuleProvider
 		monitor.progress("Parsing callers", 0);
 		var callers = new ArrayList<>(incomingReferences);
 		incomingReferences.clear();
-		// TODO: Add LSP Progress
-		for (var languageServerFile : callers)
-		{
-			if (monitor.isCancellationRequested())
-			{
-				break;
-			}
-
-			if (languageServerFile == this)
-			{
-				// recursive calls, we don't need to parse ourselves again
-				continue;
-			}
+		// recursive calls, we don't need to parse ourselves again
+		callers.remove(this);
 
+		var failedCallers = new ConcurrentHashMap<LanguageServerFile, Exception>();
+		ParseScheduler.forEachInParallel(callers, monitor, languageServerFile ->
+		{
 			monitor.progress("Parsing caller %s".formatted(languageServerFile.getReferableName()), 5);
 
 			try
@@ -273,33 +303,46 @@ public class LanguageServerFile implements IModuleProvider
 			}
 			catch (Exception e)
 			{
-				log.error("Error during reparseCallers from <%s> for <%s>".formatted(file.getPath(), languageServerFile.getPath()), e);
-				addDiagnostic(
-					DiagnosticTool.NATPARSE,
-					new Diagnostic(
-						new Range(
-							new Position(0, 0),
-							new Position(0, 0)
-						),
-						"Unhandled exception: %s".formatted(e.getMessage())
-					)
-				);
+				failedCallers.put(languageServerFile, e);
 			}
-		}
-	}
+		});
 
-	private void reparseWithoutAnalyzing() throws IOException
-	{
-		reparseWithoutAnalyzing(Files.readString(file.getPath()));
+		failedCallers.forEach((languageServerFile, e) ->
+		{
+			log.error("Error during reparseCallers from <%s> for <%s>".formatted(file.getPath(), languageServerFile.getPath()), e);
+			addDiagnostic(
+				DiagnosticTool.NATPARSE,
+				new Diagnostic(
+					new Range(
+						new Position(0, 0),
+						new Position(0, 0)
+					),
+					"Unhandled exception: %s".formatted(e.getMessage())
+				)
+			);
+		});
 	}
 
-	private void reparseWithoutAnalyzing(String source)
+	private void reparseWithoutAnalyzing()
 	{
-		hasBeenAnalyzed = false;
-		if (module != null)
+		parseLock.lock();
+		try
 		{
-			destroyPresentNodes();
+			reparseWithoutAnalyzing(WorkspaceSources.read(file.getPath()), false);
 		}
+		finally
+		{
+			parseLock.unlock();
+		}
+	}
+
+	/**
+	 * @param reuseDefineData whether the DEFINE DATA of the previous module can be kept if its source is unchanged.
+	 *            Only pass true if the source of the file changed, not when imported modules might have changed.
+	 */
+	private void reparseWithoutAnalyzing(String source, boolean reuseDefineData)
+	{
+		var previousModule = snapshot.module();
 
 		// Evict ourselves from cached module references, as we're about to parse outgoing
 		// references by parsed Nodes.
@@ -313,37 +356,177 @@ public class LanguageServerFile implements IModuleProvider
 		outgoingReferences.clear(); // Will be re-added during parse
 		clearDiagnosticsByTool(DiagnosticTool.NATPARSE);
 
+		defineDataHash = hashDefineData(source);
 		var lexer = new Lexer();
-		tokens = lexer.lex(source, file.getPath());
+		var tokens = lexer.lex(source, file.getPath());
 		var parser = new NaturalParser(this);
 
-		module = parser.parse(file, tokens);
+		var module = parser.parse(file, tokens, reuseDefineData ? previousModule : null);
 		for (var diagnostic : module.diagnostics())
 		{
 			addDiagnostic(DiagnosticTool.NATPARSE, diagnostic);
 		}
+		publish(ParseLevel.BODY, module, tokens);
+
+		// The previous tree stays intact for readers that still hold its snapshot
+		if (previousModule != null)
+		{
+			releaseSharedReferences(previousModule, module);
+		}
+		markSyntaxTreeAsUsed();
+	}
+
+	/**
+	 * Drops the tokens and syntax tree of the module to free memory, keeping only the DEFINE DATA.<br/>
+	 * Calls into other modules are moved to the {@link ModuleReferenceCache}, the module gets reparsed on demand. Files
+	 * that are currently being parsed are skipped, they get marked as used again when their parse is done.
+	 */
+	void evictSyntaxTree()
+	{
+		if (!parseLock.tryLock())
+		{
+			return;
+		}
+
+		try
+		{
+			var current = snapshot;
+			if (isOpen || !current.isParsedTo(ParseLevel.BODY))
+			{
+				return;
+			}
+
+			var module = current.module();
+			var moduleBuilder = new NaturalModuleBuilder(file);
+			moduleBuilder.setHeader(module.header());
+			moduleBuilder.setComments(module.comments());
+			// Shared instead of copied, so that callers which are added while evicting aren't lost
+			moduleBuilder.shareCallersWith(module);
+			if (module instanceof IHasDefineData hasDefineData)
+			{
+				moduleBuilder.setDefineData(hasDefineData.defineData());
+			}
+			if (module instanceof IFunction function)
+			{
+				moduleBuilder.setFunctionName(function.functionName());
+				if (function.returnType()instanceof DataType returnType)
+				{
+					moduleBuilder.setReturnType(returnType);
+				}
+			}
+
+			var definedataOnlyModule = moduleBuilder.build();
+			if (!publishIfUnchanged(current, ParseLevel.DEFINE_DATA, definedataOnlyModule, null))
+			{
+				return;
+			}
+
+			for (var calledFile : outgoingReferences)
+			{
+				calledFile.moveCallerNodesToCache(this);
+			}
+			releaseSharedReferences(module, definedataOnlyModule);
+		}
+		finally
+		{
+			parseLock.unlock();
+		}
+	}
+
+	private void markSyntaxTreeAsUsed()
+	{
+		// Data areas have no body, so there is nothing worth evicting
+		if (!isOpen && file.getFiletype().canHaveBody())
+		{
+			ParsedModuleCache.touch(this);
+		}
+	}
+
+	private void moveCallerNodesToCache(LanguageServerFile caller)
+	{
+		var module = snapshot.module();
+		if (module == null)
+		{
+			return;
+		}
+
+		var callingPositions = new ArrayList<IPosition>();
+		for (var callerNode : module.callers())
+		{
+			// USINGs are part of the DEFINE DATA, which is kept
+			if (!(callerNode instanceof IUsingNode) && callerNode.referencingToken().filePath().equals(caller.file.getPath()))
+			{
+				callingPositions.add(callerNode.referencingToken());
+				module.removeCaller(callerNode);
+			}
+		}
+
+		if (!callingPositions.isEmpty())
+		{
+			ModuleReferenceCache.restoreEntries(caller, this, callingPositions);
+		}
+	}
+
+	/**
+	 * Removes the references of a replaced module from nodes that outlive it, e.g. variables of data areas or a DEFINE
+	 * DATA that has been reused by the new module.<br/>
+	 * The replaced tree itself is not modified, because it might still be read through a previous {@link FileSnapshot}.
+	 * It is left to the garbage collector.
+	 */
+	private static void releaseSharedReferences(INaturalModule replacedModule, INaturalModule newModule)
+	{
+		var ownRoots = Collections.newSetFromMap(new IdentityHashMap<ISyntaxTree, Boolean>());
+		if (replacedModule instanceof IModuleWithBody hasBody && hasBody.body() != null)
+		{
+			ownRoots.add(hasBody.body());
+		}
+
+		var defineData = replacedModule instanceof IHasDefineData hasDefineData ? hasDefineData.defineData() : null;
+		var isDefineDataReused = newModule instanceof IHasDefineData newDefineData && newDefineData.defineData() == defineData;
+		if (defineData != null && !isDefineDataReused)
+		{
+			ownRoots.add(defineData);
+		}
+
+		var isShared = new IdentityHashMap<IReferencableNode, Boolean>();
+		for (var root : ownRoots)
+		{
+			for (var reference : NodeUtil.findNodesOfType(root, ISymbolReferenceNode.class))
+			{
+				var referencedNode = reference.reference();
+				if (referencedNode != null && isShared.computeIfAbsent(referencedNode, n -> !ownRoots.contains(rootOf(n))))
+				{
+					referencedNode.removeReference(reference);
+				}
+			}
+		}
 	}
 
-	private void destroyPresentNodes()
+	private static ISyntaxTree rootOf(IReferencableNode node)
 	{
-		if (module instanceof IHasDefineData hasDefineData && hasDefineData.defineData() != null)
+		if (!(node instanceof ISyntaxNode current))
 		{
-			hasDefineData.defineData().descendants().forEach(ISyntaxNode::destroy);
+			return null;
 		}
 
-		if (module instanceof IModuleWithBody hasBody && hasBody.body() != null)
+		while (current.parent() != null)
 		{
-			hasBody.body().destroy();
+			current = current.parent();
 		}
+		return current;
 	}
 
 	public INaturalModule module(ParseStrategy strategy)
 	{
-		if (module == null || module.syntaxTree() == null) // TODO: Use parsed flag to determine if its only partial parsed. SyntaxTree is conveniently null currently, but that's not reliable
+		if (!isParsedTo(ParseLevel.BODY))
 		{
 			parse(strategy);
 		}
-		return module;
+		else
+		{
+			markSyntaxTreeAsUsed();
+		}
+		return snapshot.module();
 	}
 
 	public INaturalModule module()
@@ -351,27 +534,167 @@ public class LanguageServerFile implements IModuleProvider
 		return module(ParseStrategy.WITH_CALLERS);
 	}
 
+	/**
+	 * Returns the module parsed to at least the given level. If the module hasn't been parsed that far yet, it will be
+	 * parsed on demand.
+	 */
+	public INaturalModule module(ParseLevel level)
+	{
+		var current = snapshot;
+		if (current.isParsedTo(level))
+		{
+			return current.module();
+		}
+
+		return switch (level)
+		{
+			case HEADER -> parseHeaderOnly();
+			case DEFINE_DATA -> parseDefineDataOnly();
+			case BODY -> module(ParseStrategy.WITH_CALLERS);
+			case ANALYZED ->
+			{
+				if (!analyzeIfParsed())
+				{
+					parse(ParseStrategy.WITH_CALLERS);
+				}
+				yield snapshot.module();
+			}
+		};
+	}
+
+	private boolean analyzeIfParsed()
+	{
+		parseLock.lock();
+		try
+		{
+			var current = snapshot;
+			if (!current.isParsedTo(ParseLevel.BODY))
+			{
+				return false;
+			}
+
+			if (!current.isParsedTo(ParseLevel.ANALYZED))
+			{
+				analyze();
+				publish(ParseLevel.ANALYZED, current.module(), current.tokens());
+			}
+			return true;
+		}
+		finally
+		{
+			parseLock.unlock();
+		}
+	}
+
+	public boolean isParsedTo(ParseLevel level)
+	{
+		return snapshot.isParsedTo(level);
+	}
+
+	/**
+	 * Returns the latest published snapshot of the fully parsed module, parsing it on demand.<br/>
+	 * Features that need the module together with its tokens or diagnostics should use one snapshot instead of asking
+	 * the file multiple times, as the file might be reparsed in between.
+	 */
+	public FileSnapshot snapshot()
+	{
+		module(ParseStrategy.WITH_CALLERS);
+		return snapshot;
+	}
+
+	/**
+	 * Version of the latest published {@link FileSnapshot}. It changes whenever the file has been (re)parsed, which
+	 * allows caching information derived from the module.
+	 */
+	public long version()
+	{
+		return snapshot.version();
+	}
+
+	private synchronized void publish(ParseLevel level, INaturalModule module, TokenList tokens)
+	{
+		snapshot = new FileSnapshot(snapshot.version() + 1, level, module, tokens, allDiagnostics());
+	}
+
+	/**
+	 * Publishes the new snapshot only if no other snapshot has been published since {@code expected} was read.
+	 */
+	private synchronized boolean publishIfUnchanged(FileSnapshot expected, ParseLevel level, INaturalModule module, TokenList tokens)
+	{
+		if (snapshot.version() != expected.version())
+		{
+			return false;
+		}
+
+		publish(level, module, tokens);
+		return true;
+	}
+
+	private INaturalModule parseHeaderOnly()
+	{
+		try
+		{
+			var current = snapshot;
+			var source = WorkspaceSources.read(file.getPath());
+			var lexer = new Lexer();
+			var tokens = lexer.lex(source, file.getPath());
+			var moduleBuilder = new NaturalModuleBuilder(file);
+			moduleBuilder.setHeader(tokens.sourceHeader());
+			moduleBuilder.setComments(tokens.comments());
+			moduleBuilder.setTokens(tokens.allTokens());
+			// A concurrent parse might have gotten further in the meantime, which must not be replaced
+			if (publishIfUnchanged(current, ParseLevel.HEADER, moduleBuilder.build(), tokens))
+			{
+				defineDataHash = hashDefineData(source);
+			}
+		}
+		catch (Exception e)
+		{
+			log.error("Error during parseHeaderOnly from <%s>".formatted(file.getPath()), e);
+			addDiagnostic(
+				DiagnosticTool.NATPARSE,
+				new Diagnostic(
+					new Range(
+						new Position(0, 0),
+						new Position(0, 0)
+					),
+					"Unhandled exception: %s".formatted(e.getMessage())
+				)
+			);
+		}
+
+		return snapshot.module();
+	}
+
 	// TODO(cyclic-dependencies):
 	//   Currently necessary for dependency loops which would cause a stack overflow. e.g. MOD1 -> MOD2 -> MOD1 ...
 	//   Solution might be to instantiate modules while indexing, only replacing stuff with the parser
-	private INaturalModule parseDefineDataOnly()
+	// Synchronized, because multiple callers that get parsed in parallel can request the DEFINE DATA at the same time.
+	// Data areas are the only modules that get locked while holding this lock, so there is no lock cycle.
+	private synchronized INaturalModule parseDefineDataOnly()
 	{
-		if (module != null)
+		var current = snapshot;
+		if (current.isParsedTo(ParseLevel.DEFINE_DATA))
 		{
-			return module;
+			return current.module();
 		}
 
 		try
 		{
-			var source = Files.readString(file.getPath());
-			var lexer = new Lexer();
-			tokens = lexer.lex(source, file.getPath());
+			var tokens = current.tokens();
+			if (!current.isParsedTo(ParseLevel.HEADER) || tokens == null)
+			{
+				var source = WorkspaceSources.read(file.getPath());
+				defineDataHash = hashDefineData(source);
+				var lexer = new Lexer();
+				tokens = lexer.lex(source, file.getPath());
+			}
 			var defineDataParser = new DefineDataParser(this);
 			var definedata = defineDataParser.parse(tokens);
 			var moduleBuilder = new NaturalModuleBuilder(file);
 			moduleBuilder.setDefineData(definedata.result());
 			moduleBuilder.setComments(tokens.comments());
-			this.module = moduleBuilder.build();
+			publish(ParseLevel.DEFINE_DATA, moduleBuilder.build(), tokens);
 		}
 		catch (Exception e)
 		{
@@ -388,7 +711,7 @@ public class LanguageServerFile implements IModuleProvider
 			);
 		}
 
-		return module;
+		return snapshot.module();
 	}
 
 	void setLibrary(LanguageServerLibrary library)
@@ -436,15 +759,21 @@ public class LanguageServerFile implements IModuleProvider
 
 		try
 		{
-			return new DdmParser().parseDdm(Files.readString(calledFile.getPath()));
+			return new DdmParser().parseDdm(WorkspaceSources.read(calledFile.getPath()));
 		}
-		catch (IOException e)
+		catch (UncheckedIOException e)
 		{
 			log.error("Error during findDdm from <%s>".formatted(file.getPath()), e);
-			throw new UncheckedIOException(e);
+			throw e;
 		}
 	}
 
+	@Override
+	public ISourceProvider sourceProvider()
+	{
+		return WorkspaceSources.PROVIDER;
+	}
+
 	void addIncomingReference(LanguageServerFile caller)
 	{
 		incomingReferences.add(caller);
@@ -452,13 +781,14 @@ public class LanguageServerFile implements IModuleProvider
 
 	private void removeIncomingReference(LanguageServerFile caller)
 	{
-		if (module != null)
+		var currentModule = snapshot.module();
+		if (currentModule != null)
 		{
-			for (var callerNode : module.callers())
+			for (var callerNode : currentModule.callers())
 			{
 				if (callerNode.referencingToken().filePath().equals(caller.file.getPath()))
 				{
-					module.removeCaller(callerNode);
+					currentModule.removeCaller(callerNode);
 				}
 			}
 		}
@@ -494,6 +824,15 @@ public class LanguageServerFile implements IModuleProvider
 		return file;
 	}
 
+	/**
+	 * The MD5 hash of the DEFINE DATA source as of the last time the file was read, or {@code null} if it hasn't been
+	 * read yet.
+	 */
+	public byte[] defineDataHash()
+	{
+		return defineDataHash;
+	}
+
 	private byte[] hashDefineData(String source)
 	{
 		try
@@ -515,9 +854,11 @@ public class LanguageServerFile implements IModuleProvider
 	 */
 	public Stream<SyntaxToken> tokens()
 	{
+		var tokens = snapshot.tokens();
 		if (tokens == null)
 		{
-			parse(ParseStrategy.WITHOUT_CALLERS);
+			// Evicted or not yet parsed. Only lex, publishing a HEADER snapshot would drop the DEFINE DATA and callers.
+			tokens = new Lexer().lex(WorkspaceSources.read(file.getPath()), file.getPath());
 		}
 
 		return tokens.stream();
@@ -9,6 +9,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public class LanguageServerLibrary
@@ -17,13 +19,24 @@ public class LanguageServerLibrary
 	private final Map<String, List<LanguageServerFile>> filesByReferableName;
 	private final Map<String, LanguageServerFile> ddmsByReferableName;
 	private final List<LanguageServerLibrary> stepLibs = new ArrayList<>();
+	private final ModuleNameIndex moduleNameIndex = new ModuleNameIndex();
+	// Libraries that have this library as steplib, to invalidate their resolutions when files change
+	private final List<LanguageServerLibrary> dependentLibraries = new ArrayList<>();
+	// Memoized steplib that resolves a referable name, empty if no steplib contains it
+	private final Map<String, Optional<LanguageServerLibrary>> stepLibByReferableName = new ConcurrentHashMap<>();
+	private final Map<String, Optional<LanguageServerLibrary>> stepLibByDdmName = new ConcurrentHashMap<>();
 
 	public LanguageServerLibrary(NaturalLibrary library, Map<String, List<LanguageServerFile>> filesByReferableName, Map<String, LanguageServerFile> ddmsByReferableName)
 	{
 		this.library = library;
 		this.filesByReferableName = filesByReferableName;
 		this.ddmsByReferableName = ddmsByReferableName;
-		filesByReferableName.values().forEach(files -> files.forEach(f -> f.setLibrary(this)));
+		filesByReferableName.values().forEach(files -> files.forEach(f ->
+		{
+			f.setLibrary(this);
+			moduleNameIndex.add(f);
+		}));
+		ddmsByReferableName.values().forEach(moduleNameIndex::add);
 	}
 
 	public String name()
@@ -59,15 +72,49 @@ public class LanguageServerLibrary
 
 	public List<LanguageServerFile> getModulesOfType(NaturalFileType type, boolean includeStepLibs)
 	{
-		var filesOfType = filesByReferableName.values().stream().flatMap(Collection::stream).filter(files -> files.getType() == type).collect(Collectors.toCollection(ArrayList::new));
-		if (includeStepLibs)
+		if (type == NaturalFileType.DDM)
+		{
+			// DDMs are only indexed to be found by name, they aren't modules of the library
+			return List.of();
+		}
+
+		if (!includeStepLibs)
 		{
-			stepLibs.forEach(l -> filesOfType.addAll(l.getModulesOfType(type, false)));
+			return moduleNameIndex.allOfType(type);
 		}
 
+		var filesOfType = new ArrayList<>(moduleNameIndex.allOfType(type));
+		stepLibs.forEach(l -> filesOfType.addAll(l.moduleNameIndex.allOfType(type)));
 		return filesOfType;
 	}
 
+	/**
+	 * Finds up to {@code limit} modules of the given type whose referable name starts with {@code prefix}.<br/>
+	 * Modules are ordered by name, modules of this library come before modules of the steplibs.
+	 */
+	public List<LanguageServerFile> findModulesStartingWith(NaturalFileType type, String prefix, boolean includeStepLibs, int limit)
+	{
+		var foundModules = new ArrayList<>(moduleNameIndex.findByPrefix(type, prefix, limit));
+		if (includeStepLibs)
+		{
+			for (var stepLib : stepLibs)
+			{
+				if (foundModules.size() >= limit)
+				{
+					break;
+				}
+				foundModules.addAll(stepLib.moduleNameIndex.findByPrefix(type, prefix, limit - foundModules.size()));
+			}
+		}
+
+		return foundModules;
+	}
+
+	List<ModuleNameMatch> findModulesMatching(String query)
+	{
+		return moduleNameIndex.findMatching(query);
+	}
+
 	public Collection<LanguageServerFile> files()
 	{
 		return filesByReferableName.values().stream().flatMap(Collection::stream).toList();
@@ -92,13 +139,13 @@ public class LanguageServerLibrary
 
 		if (includeStepLibs)
 		{
-			for (var stepLib : stepLibs)
+			var resolvingStepLib = stepLibByReferableName.computeIfAbsent(
+				referableName,
+				name -> stepLibs.stream().filter(l -> l.filesByReferableName.containsKey(name)).findFirst()
+			);
+			if (resolvingStepLib.isPresent())
 			{
-				var foundModule = stepLib.provideNaturalModule(referableName, false, requestedType);
-				if (foundModule != null)
-				{
-					return foundModule;
-				}
+				return resolvingStepLib.get().provideNaturalModule(referableName, false, requestedType);
 			}
 		}
 
@@ -114,13 +161,13 @@ public class LanguageServerLibrary
 
 		if (includeStepLibs)
 		{
-			for (var stepLib : stepLibs)
+			var resolvingStepLib = stepLibByDdmName.computeIfAbsent(
+				referableName,
+				name -> stepLibs.stream().filter(l -> l.ddmsByReferableName.containsKey(name)).findFirst()
+			);
+			if (resolvingStepLib.isPresent())
 			{
-				var foundModule = stepLib.provideDdm(referableName, false);
-				if (foundModule != null)
-				{
-					return foundModule;
-				}
+				return resolvingStepLib.get().provideDdm(referableName, false);
 			}
 		}
 
@@ -131,8 +178,12 @@ public class LanguageServerLibrary
 	{
 		for (var stepLib : library.getStepLibs())
 		{
-			stepLibs.add(libraries.get(stepLib.getName()));
+			var languageServerStepLib = libraries.get(stepLib.getName());
+			stepLibs.add(languageServerStepLib);
+			languageServerStepLib.dependentLibraries.add(this);
 		}
+		stepLibByReferableName.clear();
+		stepLibByDdmName.clear();
 	}
 
 	public List<LanguageServerLibrary> getStepLibs()
@@ -153,7 +204,9 @@ public class LanguageServerLibrary
 	{
 		filesByReferableName.computeIfAbsent(languageServerFile.getReferableName(), __ -> new ArrayList<>())
 			.add(languageServerFile);
+		moduleNameIndex.add(languageServerFile);
 		languageServerFile.setLibrary(this);
+		invalidateStepLibResolutions(languageServerFile.getReferableName());
 		library.addFile(languageServerFile.getNaturalFile());
 	}
 
@@ -177,7 +230,8 @@ public class LanguageServerLibrary
 
 		var newName = newPath.getFileName().toString().split("\\.")[0];
 		var oldFilesLsLibrary = oldFile.getLibrary();
-		oldFilesLsLibrary.filesByReferableName.remove(oldFile.getReferableName());
+		forgetCachedState(oldFile);
+		oldFilesLsLibrary.removeFilesWithReferableName(oldFile.getReferableName());
 		var oldNaturalLibrary = oldFilesLsLibrary.getLibrary();
 		var newNaturalFile = new NaturalFile(newName, newPath, oldFile.getType(), oldNaturalLibrary);
 		oldNaturalLibrary.removeFile(oldFile.getNaturalFile());
@@ -188,7 +242,8 @@ public class LanguageServerLibrary
 	public void rename(LanguageServerFile oldFile, String newReferableName)
 	{
 		var oldFilesLsLibrary = oldFile.getLibrary();
-		oldFilesLsLibrary.filesByReferableName.remove(oldFile.getReferableName());
+		forgetCachedState(oldFile);
+		oldFilesLsLibrary.removeFilesWithReferableName(oldFile.getReferableName());
 		var oldNaturalLibrary = oldFilesLsLibrary.getLibrary();
 		var newNaturalFile = new NaturalFile(newReferableName, oldFile.getPath(), oldFile.getType(), oldNaturalLibrary);
 		oldNaturalLibrary.removeFile(oldFile.getNaturalFile());
@@ -198,7 +253,34 @@ public class LanguageServerLibrary
 
 	public void remove(LanguageServerFile file)
 	{
+		forgetCachedState(file);
 		file.getLibrary().library.removeFile(file.getNaturalFile());
-		file.getLibrary().filesByReferableName.remove(file.getReferableName());
+		file.getLibrary().removeFilesWithReferableName(file.getReferableName());
+	}
+
+	// The caches are static, they would keep the file and its module alive otherwise
+	private static void forgetCachedState(LanguageServerFile file)
+	{
+		ParsedModuleCache.remove(file);
+		ParameterSignatureIndex.remove(file);
+	}
+
+	private void removeFilesWithReferableName(String referableName)
+	{
+		var removedFiles = filesByReferableName.remove(referableName);
+		if (removedFiles != null)
+		{
+			removedFiles.forEach(moduleNameIndex::remove);
+		}
+		invalidateStepLibResolutions(referableName);
+	}
+
+	private void invalidateStepLibResolutions(String referableName)
+	{
+		for (var dependentLibrary : dependentLibraries)
+		{
+			dependentLibrary.stepLibByReferableName.remove(referableName);
+			dependentLibrary.stepLibByDdmName.remove(referableName);
+		}
 	}
 }
@@ -54,6 +54,18 @@ public class LanguageServerProject
 		return null;
 	}
 
+	/**
+	 * Searches the modules of all libraries by name, see {@link ModuleNameMatch} for the ranking.
+	 */
+	public List<ModuleNameMatch> findModulesMatching(String query, int limit)
+	{
+		return libraries.values().stream()
+			.flatMap(l -> l.findModulesMatching(query).stream())
+			.sorted(ModuleNameMatch.BEST_FIRST)
+			.limit(limit)
+			.toList();
+	}
+
 	// Used in tests only
 	public LanguageServerFile findFileByReferableName(String library, String referableName)
 	{
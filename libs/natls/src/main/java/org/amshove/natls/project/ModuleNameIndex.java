@@ -0,0 +1,163 @@
+package org.amshove.natls.project;
+
+import org.amshove.natparse.natural.project.NaturalFileType;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Sorted index of the referable names of the modules within a single library, bucketed by {@link NaturalFileType}.<br/>
+ * Allows looking up all modules of a type or modules by a name prefix without scanning every file of the library.<br/>
+ * Names are additionally indexed by their trigrams to find modules by substring or similar names.
+ */
+class ModuleNameIndex
+{
+	private static final int TRIGRAM_LENGTH = 3;
+
+	private final Map<NaturalFileType, NavigableMap<String, LanguageServerFile>> modulesByType = new EnumMap<>(NaturalFileType.class);
+	private final Map<String, Set<LanguageServerFile>> modulesByTrigram = new HashMap<>();
+
+	synchronized void add(LanguageServerFile file)
+	{
+		var name = normalize(file.getReferableName());
+		modulesByType.computeIfAbsent(file.getType(), __ -> new TreeMap<>())
+			.put(name, file);
+		for (var trigram : trigrams(name))
+		{
+			modulesByTrigram.computeIfAbsent(trigram, __ -> new HashSet<>()).add(file);
+		}
+	}
+
+	synchronized void remove(LanguageServerFile file)
+	{
+		var name = normalize(file.getReferableName());
+		var modules = modulesByType.get(file.getType());
+		if (modules != null)
+		{
+			modules.remove(name, file);
+		}
+		for (var trigram : trigrams(name))
+		{
+			var modulesWithTrigram = modulesByTrigram.get(trigram);
+			if (modulesWithTrigram != null)
+			{
+				modulesWithTrigram.remove(file);
+				if (modulesWithTrigram.isEmpty())
+				{
+					modulesByTrigram.remove(trigram);
+				}
+			}
+		}
+	}
+
+	synchronized List<LanguageServerFile> allOfType(NaturalFileType type)
+	{
+		var modules = modulesByType.get(type);
+		return modules == null ? List.of() : List.copyOf(modules.values());
+	}
+
+	/**
+	 * Returns up to {@code limit} modules of the given type whose name starts with the prefix, ordered by name.
+	 */
+	synchronized List<LanguageServerFile> findByPrefix(NaturalFileType type, String prefix, int limit)
+	{
+		var modules = modulesByType.get(type);
+		if (modules == null || limit <= 0)
+		{
+			return List.of();
+		}
+
+		var normalizedPrefix = normalize(prefix);
+		var matchingModules = normalizedPrefix.isEmpty()
+			? modules
+			: modules.subMap(normalizedPrefix, true, normalizedPrefix + Character.MAX_VALUE, false);
+
+		var result = new ArrayList<LanguageServerFile>(Math.min(limit, matchingModules.size()));
+		for (var module : matchingModules.values())
+		{
+			if (result.size() == limit)
+			{
+				break;
+			}
+			result.add(module);
+		}
+		return result;
+	}
+
+	/**
+	 * Finds modules whose name contains the query or shares at least half of its trigrams with it.<br/>
+	 * The matches are unordered, they're meant to be ranked together with the matches of other libraries.
+	 */
+	synchronized List<ModuleNameMatch> findMatching(String query)
+	{
+		var normalizedQuery = normalize(query);
+		var matches = new ArrayList<ModuleNameMatch>();
+		if (normalizedQuery.length() < TRIGRAM_LENGTH)
+		{
+			// Not enough for a trigram, but short queries are only a substring check per name
+			for (var modules : modulesByType.values())
+			{
+				for (var entry : modules.entrySet())
+				{
+					var match = ModuleNameMatch.substringMatch(entry.getValue(), entry.getKey(), normalizedQuery);
+					if (match != null)
+					{
+						matches.add(match);
+					}
+				}
+			}
+			return matches;
+		}
+
+		var queryTrigrams = trigrams(normalizedQuery);
+		var sharedTrigramsByModule = new HashMap<LanguageServerFile, Integer>();
+		for (var trigram : queryTrigrams)
+		{
+			for (var module : modulesByTrigram.getOrDefault(trigram, Set.of()))
+			{
+				sharedTrigramsByModule.merge(module, 1, Integer::sum);
+			}
+		}
+
+		var minimumSharedTrigrams = (queryTrigrams.size() + 1) / 2;
+		for (var entry : sharedTrigramsByModule.entrySet())
+		{
+			var module = entry.getKey();
+			var name = normalize(module.getReferableName());
+			var match = entry.getValue() == queryTrigrams.size()
+				? ModuleNameMatch.substringMatch(module, name, normalizedQuery)
+				: null;
+			if (match == null && entry.getValue() >= minimumSharedTrigrams)
+			{
+				match = ModuleNameMatch.similarMatch(module, queryTrigrams.size() - entry.getValue());
+			}
+			if (match != null)
+			{
+				matches.add(match);
+			}
+		}
+		return matches;
+	}
+
+	private static Set<String> trigrams(String name)
+	{
+		var trigrams = new HashSet<String>();
+		for (var i = 0; i + TRIGRAM_LENGTH <= name.length(); i++)
+		{
+			trigrams.add(name.substring(i, i + TRIGRAM_LENGTH));
+		}
+		return trigrams;
+	}
+
+	private static String normalize(String name)
+	{
+		return name.toUpperCase();
+	}
+}
@@ -0,0 +1,48 @@
+package org.amshove.natls.project;
+
+import java.util.Comparator;
+
+/**
+ * A module found by searching for its name, ranked by how well the name matches.
+ *
+ * @param file the matching module
+ * @param quality exact matches come first, then prefixes, substrings and lastly similar names
+ * @param distance within the same quality: position of the substring or number of trigrams not shared with the query
+ */
+public record ModuleNameMatch(LanguageServerFile file, MatchQuality quality, int distance)
+{
+	public enum MatchQuality
+	{
+		EXACT,
+		PREFIX,
+		SUBSTRING,
+		SIMILAR
+	}
+
+	public static final Comparator<ModuleNameMatch> BEST_FIRST = Comparator
+		.comparing(ModuleNameMatch::quality)
+		.thenComparingInt(ModuleNameMatch::distance)
+		.thenComparingInt(m -> m.file().getReferableName().length())
+		.thenComparing(m -> m.file().getReferableName());
+
+	static ModuleNameMatch substringMatch(LanguageServerFile file, String normalizedName, String normalizedQuery)
+	{
+		var index = normalizedName.indexOf(normalizedQuery);
+		if (index < 0)
+		{
+			return null;
+		}
+
+		if (index > 0)
+		{
+			return new ModuleNameMatch(file, MatchQuality.SUBSTRING, index);
+		}
+
+		return new ModuleNameMatch(file, normalizedName.length() == normalizedQuery.length() ? MatchQuality.EXACT : MatchQuality.PREFIX, 0);
+	}
+
+	static ModuleNameMatch similarMatch(LanguageServerFile file, int missingTrigrams)
+	{
+		return new ModuleNameMatch(file, MatchQuality.SIMILAR, missingTrigrams);
+	}
+}
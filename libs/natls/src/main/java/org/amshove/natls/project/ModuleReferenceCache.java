@@ -3,6 +3,7 @@ package org.amshove.natls.project;
 import org.amshove.natparse.IPosition;
 
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -20,7 +21,7 @@ public class ModuleReferenceCache
 	private static final Map<LanguageServerFile, Set<IPosition>> cache = new HashMap<>();
 	private static final Set<Path> evictedEntries = new HashSet<>();
 
-	static void addEntry(LanguageServerFile calledFile, IPosition callingPosition)
+	static synchronized void addEntry(LanguageServerFile calledFile, IPosition callingPosition)
 	{
 		var callerPositions = cache.computeIfAbsent(calledFile, k -> new HashSet<>());
 		callerPositions.add(callingPosition);
@@ -29,7 +30,7 @@ public class ModuleReferenceCache
 	/**
 	 * Retrieve the cached calling sites of the given file.
 	 */
-	public static Set<IPosition> retrieveCachedPositions(LanguageServerFile calledFile)
+	public static synchronized Set<IPosition> retrieveCachedPositions(LanguageServerFile calledFile)
 	{
 		if (!cache.containsKey(calledFile))
 		{
@@ -39,6 +40,16 @@ public class ModuleReferenceCache
 		return Set.copyOf(cache.get(calledFile));
 	}
 
+	/**
+	 * Adds the calling positions of a file whose syntax tree has been evicted from memory.<br/>
+	 * They will be evicted again once the calling file gets parsed.
+	 */
+	static synchronized void restoreEntries(LanguageServerFile callingFile, LanguageServerFile calledFile, Collection<IPosition> callingPositions)
+	{
+		cache.computeIfAbsent(calledFile, k -> new HashSet<>()).addAll(callingPositions);
+		evictedEntries.remove(callingFile.getPath());
+	}
+
 	/**
 	 * Evicts all cache entries pointing to the given file.<br/>
 	 */
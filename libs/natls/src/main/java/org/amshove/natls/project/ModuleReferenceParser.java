@@ -6,8 +6,7 @@ import org.amshove.natparse.lexing.SyntaxKind;
 import org.amshove.natparse.lexing.TokenList;
 import org.amshove.natparse.natural.project.NaturalFileType;
 
-import java.io.IOException;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -23,7 +22,7 @@ public class ModuleReferenceParser
 		var path = file.getPath();
 		try
 		{
-			var tokens = lexer.lex(Files.readString(path), path);
+			var tokens = lexer.lex(WorkspaceSources.read(path), path);
 			var calledModules = processReferences(tokens);
 			for (var calledModule : calledModules)
 			{
@@ -39,7 +38,7 @@ public class ModuleReferenceParser
 				}
 			}
 		}
-		catch (IOException e)
+		catch (UncheckedIOException e)
 		{
 			// do not interrupt project indexing
 		}
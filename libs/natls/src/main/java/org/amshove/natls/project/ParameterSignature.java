@@ -0,0 +1,33 @@
+package org.amshove.natls.project;
+
+import org.amshove.natparse.natural.IDefineData;
+import org.amshove.natparse.natural.IUsingNode;
+import org.amshove.natparse.natural.IVariableNode;
+
+import java.util.List;
+
+/**
+ * The parameters a module declares, in order. Holds only plain values, so it can be kept without keeping the syntax
+ * tree of the module alive.
+ */
+public record ParameterSignature(List<Parameter> parameters)
+{
+	/**
+	 * @param name the name of the parameter, or of the data area for {@code PARAMETER USING}
+	 */
+	public record Parameter(String name)
+	{}
+
+	static ParameterSignature fromDefineData(IDefineData defineData)
+	{
+		return new ParameterSignature(
+			defineData.declaredParameterInOrder().stream()
+				.map(parameter -> switch (parameter)
+				{
+					case IUsingNode using -> new Parameter(using.target().symbolName());
+					case IVariableNode variable -> new Parameter(variable.name());
+				})
+				.toList()
+		);
+	}
+}
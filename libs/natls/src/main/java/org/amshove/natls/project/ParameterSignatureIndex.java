@@ -0,0 +1,64 @@
+package org.amshove.natls.project;
+
+import org.amshove.natparse.natural.IHasDefineData;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the {@link ParameterSignature}s of modules.<br/>
+ * Entries stay valid as long as the hash of the modules DEFINE DATA doesn't change, so changes to the body of a module
+ * don't invalidate its signature.
+ */
+public class ParameterSignatureIndex
+{
+	private record IndexedSignature(byte[] defineDataHash, ParameterSignature signature)
+	{}
+
+	private static final ParameterSignature NO_PARAMETER = new ParameterSignature(List.of());
+	private static final Map<LanguageServerFile, IndexedSignature> signatures = new ConcurrentHashMap<>();
+
+	private ParameterSignatureIndex()
+	{}
+
+	/**
+	 * Returns the parameter signature of the given module. The DEFINE DATA is only parsed if the module hasn't been
+	 * parsed yet or its DEFINE DATA changed since the signature was created.
+	 */
+	public static ParameterSignature signatureOf(LanguageServerFile file)
+	{
+		var defineDataHash = file.defineDataHash();
+		var indexed = signatures.get(file);
+		if (indexed != null && defineDataHash != null && Arrays.equals(indexed.defineDataHash(), defineDataHash))
+		{
+			return indexed.signature();
+		}
+
+		var module = file.module(ParseLevel.DEFINE_DATA);
+		if (!(module instanceof IHasDefineData hasDefineData) || hasDefineData.defineData() == null)
+		{
+			return NO_PARAMETER;
+		}
+
+		var signature = ParameterSignature.fromDefineData(hasDefineData.defineData());
+		// The hash can only be null if the module couldn't be parsed, don't cache anything in that case
+		var parsedDefineDataHash = file.defineDataHash();
+		if (parsedDefineDataHash != null)
+		{
+			signatures.put(file, new IndexedSignature(parsedDefineDataHash, signature));
+		}
+		return signature;
+	}
+
+	static void remove(LanguageServerFile file)
+	{
+		signatures.remove(file);
+	}
+
+	static boolean isIndexed(LanguageServerFile file)
+	{
+		return signatures.containsKey(file);
+	}
+}
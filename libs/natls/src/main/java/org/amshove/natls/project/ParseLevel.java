@@ -0,0 +1,34 @@
+package org.amshove.natls.project;
+
+/**
+ * Describes how far a {@link LanguageServerFile} has been parsed.<br/>
+ * Levels are ordered, every level contains everything the previous levels contain. Features should request the minimal
+ * level they need, higher levels are parsed lazily when requested.
+ */
+public enum ParseLevel
+{
+	/**
+	 * The source has only been lexed. Tokens, comments and the source header are available.
+	 */
+	HEADER,
+
+	/**
+	 * The DEFINE DATA has been parsed, which is enough to know the variables and parameter of the module.
+	 */
+	DEFINE_DATA,
+
+	/**
+	 * The whole module has been parsed, including the body, type checking and parameter checks.
+	 */
+	BODY,
+
+	/**
+	 * The module has been parsed and the linter has been run.
+	 */
+	ANALYZED;
+
+	public boolean includes(ParseLevel other)
+	{
+		return ordinal() >= other.ordinal();
+	}
+}
@@ -0,0 +1,110 @@
+package org.amshove.natls.project;
+
+import org.amshove.natls.progress.IProgressMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Parses multiple files in parallel on a dedicated worker pool.<br/>
+ * Files are parsed in dependency order: first the data areas, then the DEFINE DATA of all other modules and lastly the
+ * bodies. Every phase only starts when the previous one is done, so that a module body never has to wait for the DEFINE
+ * DATA of a called module.
+ */
+public class ParseScheduler
+{
+	private static final Logger log = LoggerFactory.getLogger(ParseScheduler.class);
+	// A dedicated pool, so that parsing a whole project doesn't starve the common pool that serves requests
+	private static final ForkJoinPool workerPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+	private ParseScheduler()
+	{}
+
+	/**
+	 * Fully parses all given files that can have a DEFINE DATA, without reparsing their callers.
+	 *
+	 * @param onFileParsed called on the worker thread for every file that has been parsed completely
+	 */
+	public static void parseAll(Collection<LanguageServerFile> files, IProgressMonitor monitor, Consumer<LanguageServerFile> onFileParsed)
+	{
+		var dataAreas = files.stream()
+			.filter(f -> f.getType().canHaveDefineData() && !f.getType().canHaveBody())
+			.toList();
+		var modules = files.stream()
+			.filter(f -> f.getType().canHaveDefineData() && f.getType().canHaveBody())
+			.toList();
+
+		var totalWork = dataAreas.size() + 2L * modules.size();
+		var doneWork = new AtomicLong();
+		Consumer<LanguageServerFile> reportProgress = f ->
+		{
+			var percentage = (int) (doneWork.incrementAndGet() * 100 / Math.max(1, totalWork));
+			monitor.progress("%s.%s".formatted(f.getLibrary().name(), f.getReferableName()), percentage);
+		};
+
+		forEachInParallel(dataAreas, monitor, f ->
+		{
+			reportProgress.accept(f);
+			f.parse(ParseStrategy.WITHOUT_CALLERS);
+			onFileParsed.accept(f);
+		});
+
+		forEachInParallel(modules, monitor, f ->
+		{
+			reportProgress.accept(f);
+			f.module(ParseLevel.DEFINE_DATA);
+		});
+
+		forEachInParallel(modules, monitor, f ->
+		{
+			reportProgress.accept(f);
+			f.parse(ParseStrategy.WITHOUT_CALLERS);
+			onFileParsed.accept(f);
+		});
+	}
+
+	/**
+	 * Runs the given action for every file on the worker pool and waits until all of them are done.<br/>
+	 * Files that haven't been started yet are skipped once cancellation is requested. An exception thrown for one file
+	 * is logged and doesn't stop the others.
+	 */
+	public static void forEachInParallel(List<LanguageServerFile> files, IProgressMonitor monitor, Consumer<LanguageServerFile> action)
+	{
+		if (files.isEmpty())
+		{
+			return;
+		}
+
+		Runnable work = () -> files.parallelStream().forEach(f ->
+		{
+			if (monitor.isCancellationRequested())
+			{
+				return;
+			}
+
+			try
+			{
+				action.accept(f);
+			}
+			catch (Exception e)
+			{
+				log.error("Error while parsing <%s>".formatted(f.getPath()), e);
+			}
+		});
+
+		if (ForkJoinTask.getPool() == workerPool)
+		{
+			// Already running on the pool, e.g. when callers are reparsed during parseAll
+			work.run();
+			return;
+		}
+
+		workerPool.submit(work).join();
+	}
+}
@@ -0,0 +1,81 @@
+package org.amshove.natls.project;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Bounds the amount of fully parsed modules of files that are not opened in an editor.<br/>
+ * If more syntax trees than allowed are retained, the least recently used ones get evicted. Evicted files keep their
+ * DEFINE DATA and their references and will be reparsed on demand.
+ */
+public class ParsedModuleCache
+{
+	public static final int DEFAULT_MAX_RETAINED_SYNTAX_TREES = 2000;
+
+	private static final LinkedHashMap<LanguageServerFile, Boolean> retainedFiles = new LinkedHashMap<>(16, 0.75f, true);
+	private static int maxRetainedSyntaxTrees = DEFAULT_MAX_RETAINED_SYNTAX_TREES;
+
+	/**
+	 * Marks the syntax tree of the given file as most recently used and evicts the least recently used syntax trees if
+	 * the limit is exceeded.
+	 */
+	static void touch(LanguageServerFile file)
+	{
+		List<LanguageServerFile> filesToEvict;
+		synchronized (ParsedModuleCache.class)
+		{
+			retainedFiles.put(file, Boolean.TRUE);
+			filesToEvict = removeExceedingSyntaxTrees();
+		}
+		evict(filesToEvict);
+	}
+
+	/**
+	 * Stops tracking the given file, e.g. because it has been opened or deleted.
+	 */
+	static synchronized void remove(LanguageServerFile file)
+	{
+		retainedFiles.remove(file);
+	}
+
+	public static void setMaxRetainedSyntaxTrees(int maxRetainedSyntaxTrees)
+	{
+		List<LanguageServerFile> filesToEvict;
+		synchronized (ParsedModuleCache.class)
+		{
+			ParsedModuleCache.maxRetainedSyntaxTrees = Math.max(0, maxRetainedSyntaxTrees);
+			filesToEvict = removeExceedingSyntaxTrees();
+		}
+		evict(filesToEvict);
+	}
+
+	public static synchronized int retainedSyntaxTrees()
+	{
+		return retainedFiles.size();
+	}
+
+	private static List<LanguageServerFile> removeExceedingSyntaxTrees()
+	{
+		var leastRecentlyUsed = new ArrayList<LanguageServerFile>();
+		var iterator = retainedFiles.keySet().iterator();
+		while (retainedFiles.size() > maxRetainedSyntaxTrees && iterator.hasNext())
+		{
+			leastRecentlyUsed.add(iterator.next());
+			iterator.remove();
+		}
+		return leastRecentlyUsed;
+	}
+
+	// Outside the lock of the cache, as evicting a file takes the lock of that file
+	private static void evict(List<LanguageServerFile> files)
+	{
+		for (var file : files)
+		{
+			file.evictSyntaxTree();
+		}
+	}
+
+	private ParsedModuleCache()
+	{}
+}
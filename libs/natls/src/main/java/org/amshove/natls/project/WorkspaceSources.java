@@ -0,0 +1,60 @@
+package org.amshove.natls.project;
+
+import org.amshove.natparse.infrastructure.CachingSourceProvider;
+import org.amshove.natparse.infrastructure.ISourceProvider;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single point to read the source of files within the workspace.<br/>
+ * Content of files that have been changed in an editor but not saved yet is served from the editor buffer, everything
+ * else is read from disk through a bounded cache that is validated against the modification time and size.
+ */
+public class WorkspaceSources
+{
+	private static final CachingSourceProvider fileSystem = new CachingSourceProvider();
+	private static final Map<Path, String> editorBuffers = new ConcurrentHashMap<>();
+
+	static final ISourceProvider PROVIDER = WorkspaceSources::read;
+
+	/**
+	 * Returns the unsaved editor content of the file if there is any, otherwise the content on disk.
+	 *
+	 * @throws java.io.UncheckedIOException if the file can't be read
+	 */
+	public static String read(Path path)
+	{
+		var buffer = editorBuffers.get(path);
+		return buffer != null ? buffer : fileSystem.readSource(path);
+	}
+
+	/**
+	 * Serves the given content for the file until the buffer gets saved or closed.
+	 */
+	static void overlay(Path path, String editorContent)
+	{
+		editorBuffers.put(path, editorContent);
+	}
+
+	/**
+	 * Serves the content on disk again, e.g. because the editor buffer has been saved or closed.
+	 */
+	static void removeOverlay(Path path)
+	{
+		editorBuffers.remove(path);
+	}
+
+	/**
+	 * Forgets everything known about the file, e.g. because it has been deleted.
+	 */
+	public static void invalidate(Path path)
+	{
+		editorBuffers.remove(path);
+		fileSystem.invalidate(path);
+	}
+
+	private WorkspaceSources()
+	{}
+}
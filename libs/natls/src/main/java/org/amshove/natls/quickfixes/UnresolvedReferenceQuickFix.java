@@ -4,7 +4,7 @@ import org.amshove.natls.WorkspaceEditBuilder;
 import org.amshove.natls.codeactions.AbstractQuickFix;
 import org.amshove.natls.codeactions.QuickFixContext;
 import org.amshove.natls.project.LanguageServerLibrary;
-import org.amshove.natls.project.ParseStrategy;
+import org.amshove.natls.project.ParseLevel;
 import org.amshove.natparse.natural.*;
 import org.amshove.natparse.natural.project.NaturalFileType;
 import org.amshove.natparse.parsing.ParserError;
@@ -110,7 +110,7 @@ public class UnresolvedReferenceQuickFix extends AbstractQuickFix
 	{
 		return library.files().stream()
 			.filter(f -> f.getType() == NaturalFileType.LDA || f.getType() == NaturalFileType.PDA)
-			.map(languageServerFile -> languageServerFile.module(ParseStrategy.WITHOUT_CALLERS))
+			.map(languageServerFile -> languageServerFile.module(ParseLevel.DEFINE_DATA))
 			.map(m ->
 			{
 				try
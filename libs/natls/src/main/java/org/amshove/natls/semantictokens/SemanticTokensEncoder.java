@@ -0,0 +1,78 @@
+package org.amshove.natls.semantictokens;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Encodes semantic tokens into the relative integer format of the LSP.<br/>
+ * Tokens have to be pushed in order of their position. The data is kept in a plain int array, so that encoding doesn't
+ * allocate per token.
+ */
+class SemanticTokensEncoder
+{
+	static final int INTS_PER_TOKEN = 5;
+
+	private int[] data;
+	private int size;
+	private int previousLine;
+	private int previousStart;
+
+	SemanticTokensEncoder(int expectedTokens)
+	{
+		data = new int[Math.max(expectedTokens, 16) * INTS_PER_TOKEN];
+	}
+
+	void push(int line, int start, int length, int tokenType, int tokenModifiers)
+	{
+		if (size + INTS_PER_TOKEN > data.length)
+		{
+			data = Arrays.copyOf(data, data.length * 2);
+		}
+
+		var deltaLine = line - previousLine;
+		data[size++] = deltaLine;
+		data[size++] = deltaLine == 0 ? start - previousStart : start;
+		data[size++] = length;
+		data[size++] = tokenType;
+		data[size++] = tokenModifiers;
+		previousLine = line;
+		previousStart = start;
+	}
+
+	int[] encoded()
+	{
+		return Arrays.copyOf(data, size);
+	}
+
+	/**
+	 * Wraps the encoded data as the {@link List} lsp4j expects, without boxing every element upfront.
+	 */
+	static List<Integer> asList(int[] encoded)
+	{
+		return new IntArrayList(encoded);
+	}
+
+	private static final class IntArrayList extends AbstractList<Integer> implements RandomAccess
+	{
+		private final int[] values;
+
+		private IntArrayList(int[] values)
+		{
+			this.values = values;
+		}
+
+		@Override
+		public Integer get(int index)
+		{
+			return values[index];
+		}
+
+		@Override
+		public int size()
+		{
+			return values.length;
+		}
+	}
+}
@@ -0,0 +1,301 @@
+package org.amshove.natls.semantictokens;
+
+import org.amshove.natls.project.LanguageServerFile;
+import org.amshove.natparse.ReadOnlyList;
+import org.amshove.natparse.lexing.SyntaxKind;
+import org.amshove.natparse.lexing.SyntaxToken;
+import org.amshove.natparse.natural.*;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SemanticTokenModifiers;
+import org.eclipse.lsp4j.SemanticTokenTypes;
+import org.eclipse.lsp4j.SemanticTokens;
+import org.eclipse.lsp4j.SemanticTokensDelta;
+import org.eclipse.lsp4j.SemanticTokensEdit;
+import org.eclipse.lsp4j.SemanticTokensLegend;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Classifies the tokens of a module for semantic highlighting.<br/>
+ * Keywords and literals are classified by their {@link SyntaxKind}, identifiers by what they resolve to in the syntax
+ * tree.
+ */
+public class SemanticTokensProvider
+{
+	private static final int NAMESPACE = 0;
+	private static final int VARIABLE = 1;
+	private static final int PARAMETER = 2;
+	private static final int FUNCTION = 3;
+	private static final int STRING = 4;
+	private static final int NUMBER = 5;
+	private static final int KEYWORD = 6;
+
+	private static final int DECLARATION = 1;
+	private static final int READONLY = 1 << 1;
+	private static final int DEFAULT_LIBRARY = 1 << 2;
+	private static final int LOCAL = 1 << 3;
+	private static final int GLOBAL = 1 << 4;
+	private static final int INDEPENDENT = 1 << 5;
+
+	public static final SemanticTokensLegend LEGEND = new SemanticTokensLegend(
+		List.of(
+			SemanticTokenTypes.Namespace,
+			SemanticTokenTypes.Variable,
+			SemanticTokenTypes.Parameter,
+			SemanticTokenTypes.Function,
+			SemanticTokenTypes.String,
+			SemanticTokenTypes.Number,
+			SemanticTokenTypes.Keyword
+		),
+		List.of(
+			SemanticTokenModifiers.Declaration,
+			SemanticTokenModifiers.Readonly,
+			SemanticTokenModifiers.DefaultLibrary,
+			"local",
+			"global",
+			"independent"
+		)
+	);
+
+	private record EncodedTokens(String resultId, long version, int[] data)
+	{}
+
+	private final AtomicLong resultIds = new AtomicLong();
+	// Only the last result per file is kept, which is the one clients send as previous result for delta requests
+	private final Map<Path, EncodedTokens> lastResults = new ConcurrentHashMap<>();
+
+	public SemanticTokens full(LanguageServerFile file)
+	{
+		var tokens = encode(file);
+		return new SemanticTokens(tokens.resultId(), SemanticTokensEncoder.asList(tokens.data()));
+	}
+
+	public Either<SemanticTokens, SemanticTokensDelta> delta(LanguageServerFile file, String previousResultId)
+	{
+		var previous = lastResults.get(file.getPath());
+		var tokens = encode(file);
+		if (previous == null || !previous.resultId().equals(previousResultId))
+		{
+			return Either.forLeft(new SemanticTokens(tokens.resultId(), SemanticTokensEncoder.asList(tokens.data())));
+		}
+
+		return Either.forRight(new SemanticTokensDelta(diff(previous.data(), tokens.data()), tokens.resultId()));
+	}
+
+	public SemanticTokens range(LanguageServerFile file, Range range)
+	{
+		var snapshot = file.snapshot();
+		if (snapshot.module() == null || snapshot.tokens() == null)
+		{
+			return new SemanticTokens(List.of());
+		}
+
+		return new SemanticTokens(
+			SemanticTokensEncoder.asList(
+				encode(file.getPath(), snapshot.module(), snapshot.tokens().allTokens(), range.getStart().getLine(), range.getEnd().getLine())
+			)
+		);
+	}
+
+	public void forget(LanguageServerFile file)
+	{
+		lastResults.remove(file.getPath());
+	}
+
+	private EncodedTokens encode(LanguageServerFile file)
+	{
+		var snapshot = file.snapshot();
+		var previous = lastResults.get(file.getPath());
+		if (previous != null && previous.version() == snapshot.version())
+		{
+			return previous;
+		}
+
+		var data = snapshot.module() == null || snapshot.tokens() == null
+			? new int[0]
+			: encode(file.getPath(), snapshot.module(), snapshot.tokens().allTokens(), 0, Integer.MAX_VALUE);
+		var tokens = new EncodedTokens(Long.toString(resultIds.incrementAndGet()), snapshot.version(), data);
+		lastResults.put(file.getPath(), tokens);
+		return tokens;
+	}
+
+	private static int[] encode(Path filePath, INaturalModule module, ReadOnlyList<SyntaxToken> tokens, int fromLine, int toLine)
+	{
+		var resolvedTokens = classifyResolvedTokens(filePath, module, tokens);
+		var encoder = new SemanticTokensEncoder(tokens.size());
+		for (var i = 0; i < tokens.size(); i++)
+		{
+			var token = tokens.get(i);
+			if (token.line() < fromLine || token.line() > toLine)
+			{
+				continue;
+			}
+
+			var classification = resolvedTokens[i];
+			if (classification == -1)
+			{
+				classification = classifyByKind(token);
+			}
+
+			if (classification != -1)
+			{
+				encoder.push(token.line(), token.offsetInLine(), token.length(), classification & 0xFF, classification >>> 8);
+			}
+		}
+
+		return encoder.encoded();
+	}
+
+	/**
+	 * Classifies declarations and references within the given file by what they resolve to. The classification of a
+	 * token is stored at the index of the token, -1 if it doesn't resolve to anything.<br/>
+	 * Tokens are looked up by position, because the parser might have combined or re-kinded the lexed tokens.
+	 */
+	private static int[] classifyResolvedTokens(Path filePath, INaturalModule module, ReadOnlyList<SyntaxToken> tokens)
+	{
+		var classifications = new int[tokens.size()];
+		Arrays.fill(classifications, -1);
+		module.syntaxTree().acceptNodeVisitor(node ->
+		{
+			switch (node)
+			{
+				case IVariableNode variable -> classify(classifications, tokens, filePath, variable.declaration(), classifyVariable(variable) | (DECLARATION << 8));
+				case ISubroutineNode subroutine -> classify(classifications, tokens, filePath, subroutine.declaration(), FUNCTION | (DECLARATION << 8));
+				case IUsingNode using -> classify(classifications, tokens, filePath, using.target(), NAMESPACE);
+				case IExternalPerformNode perform -> classify(classifications, tokens, filePath, perform.referencingToken(), FUNCTION);
+				case ISymbolReferenceNode reference when reference.reference() instanceof IVariableNode variable ->
+					classify(classifications, tokens, filePath, reference.referencingToken(), classifyVariable(variable));
+				case ISymbolReferenceNode reference when reference.reference() instanceof ISubroutineNode ->
+					classify(classifications, tokens, filePath, reference.referencingToken(), FUNCTION);
+				default ->
+				{}
+			}
+		});
+		return classifications;
+	}
+
+	private static void classify(int[] classifications, ReadOnlyList<SyntaxToken> tokens, Path filePath, SyntaxToken token, int classification)
+	{
+		if (token == null || !filePath.equals(token.filePath()))
+		{
+			return;
+		}
+
+		var index = indexOfTokenAt(tokens, token.line(), token.offsetInLine());
+		if (index >= 0)
+		{
+			classifications[index] = classification;
+		}
+	}
+
+	/**
+	 * Binary searches the lexed tokens, which are in source order, for the token starting at the given position.
+	 */
+	private static int indexOfTokenAt(ReadOnlyList<SyntaxToken> tokens, int line, int offsetInLine)
+	{
+		var low = 0;
+		var high = tokens.size() - 1;
+		while (low <= high)
+		{
+			var middle = (low + high) >>> 1;
+			var token = tokens.get(middle);
+			var comparison = token.line() != line
+				? Integer.compare(token.line(), line)
+				: Integer.compare(token.offsetInLine(), offsetInLine);
+			if (comparison < 0)
+			{
+				low = middle + 1;
+			}
+			else
+				if (comparison > 0)
+				{
+					high = middle - 1;
+				}
+				else
+				{
+					return middle;
+				}
+		}
+		return -1;
+	}
+
+	private static int classifyVariable(IVariableNode variable)
+	{
+		var modifiers = switch (variable.scope())
+		{
+			case LOCAL -> LOCAL;
+			case GLOBAL -> GLOBAL;
+			case INDEPENDENT -> INDEPENDENT;
+			case PARAMETER -> 0;
+			case null -> 0;
+		};
+
+		if (variable instanceof ITypedVariableNode typed && typed.type() != null && typed.type().isConstant())
+		{
+			modifiers |= READONLY;
+		}
+
+		var type = variable.scope() == VariableScope.PARAMETER ? PARAMETER : VARIABLE;
+		return type | (modifiers << 8);
+	}
+
+	private static int classifyByKind(SyntaxToken token)
+	{
+		var kind = token.kind();
+		if (kind.isSystemVariable())
+		{
+			return VARIABLE | ((DEFAULT_LIBRARY | READONLY) << 8);
+		}
+
+		if (kind.isSystemFunction())
+		{
+			return FUNCTION | (DEFAULT_LIBRARY << 8);
+		}
+
+		return switch (kind)
+		{
+			case STRING_LITERAL, DATE_LITERAL, TIME_LITERAL, EXTENDED_TIME_LITERAL -> STRING;
+			case NUMBER_LITERAL, HEX_LITERAL -> NUMBER;
+			case IDENTIFIER, LABEL_IDENTIFIER -> -1;
+			default -> !token.source().isEmpty() && Character.isLetter(token.source().charAt(0)) ? KEYWORD : -1;
+		};
+	}
+
+	/**
+	 * Creates a single edit replacing everything between the common leading and trailing tokens.
+	 */
+	private static List<SemanticTokensEdit> diff(int[] previous, int[] current)
+	{
+		var maxCommon = Math.min(previous.length, current.length);
+		var commonPrefix = 0;
+		while (commonPrefix < maxCommon && previous[commonPrefix] == current[commonPrefix])
+		{
+			commonPrefix++;
+		}
+
+		if (commonPrefix == previous.length && commonPrefix == current.length)
+		{
+			return List.of();
+		}
+
+		var commonSuffix = 0;
+		while (commonSuffix < maxCommon - commonPrefix
+			&& previous[previous.length - 1 - commonSuffix] == current[current.length - 1 - commonSuffix])
+		{
+			commonSuffix++;
+		}
+
+		// Only replace whole tokens
+		commonPrefix -= commonPrefix % SemanticTokensEncoder.INTS_PER_TOKEN;
+		commonSuffix -= commonSuffix % SemanticTokensEncoder.INTS_PER_TOKEN;
+
+		var insertedData = SemanticTokensEncoder.asList(current).subList(commonPrefix, current.length - commonSuffix);
+		return List.of(new SemanticTokensEdit(commonPrefix, previous.length - commonPrefix - commonSuffix, insertedData));
+	}
+}
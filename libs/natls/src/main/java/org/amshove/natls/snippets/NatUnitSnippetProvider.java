@@ -2,6 +2,7 @@ package org.amshove.natls.snippets;
 
 import org.amshove.natls.project.LanguageServerFile;
 import org.amshove.natls.project.LanguageServerProject;
+import org.amshove.natls.project.ParseLevel;
 import org.amshove.natparse.natural.IHasDefineData;
 import org.amshove.natparse.natural.IVariableNode;
 import org.amshove.natparse.natural.VariableScope;
@@ -24,7 +25,7 @@ public class NatUnitSnippetProvider implements ISnippetProvider // TODO: unteste
 
 		for (var assertionFile : assertionFiles)
 		{
-			var module = assertionFile.module();
+			var module = assertionFile.module(ParseLevel.DEFINE_DATA);
 			if (!(module instanceof IHasDefineData hasDefineData) || hasDefineData.defineData() == null)
 			{
 				continue;
@@ -245,6 +245,39 @@ class CompleteEndpointShould extends CompletionTest
 			.assertContainsVariableCompleting("#GRP2.#VAR :(A1) (SUB2)", "#GRP2.#VAR");
 	}
 
+	@Test
+	void qualifyVariablesOnceTheyBecomeAmbiguousInTheSameModule()
+	{
+		var config = LSConfiguration.createDefault();
+		config.getCompletion().setQualify(false);
+
+		configureLSConfig(config);
+		assertCompletions("LIBONE", "SUB3.NSN", """
+			DEFINE DATA LOCAL
+			1 #GRP
+			2 #VAR (A1)
+			END-DEFINE
+
+			${}$
+			END
+			""")
+			.assertContainsVariableCompleting("#VAR :(A1) (SUB3)", "#VAR");
+
+		assertCompletions("LIBONE", "SUB3.NSN", """
+			DEFINE DATA LOCAL
+			1 #GRP
+			2 #VAR (A1)
+			1 #GRP2
+			2 #VAR (A1)
+			END-DEFINE
+
+			${}$
+			END
+			""")
+			.assertContainsVariableCompleting("#GRP.#VAR :(A1) (SUB3)", "#GRP.#VAR")
+			.assertContainsVariableCompleting("#GRP2.#VAR :(A1) (SUB3)", "#GRP2.#VAR");
+	}
+
 	@Test
 	void filterVariableCompletionBasedOnTypedQualification()
 	{
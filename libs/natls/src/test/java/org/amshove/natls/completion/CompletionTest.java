@@ -29,15 +29,15 @@ public abstract class CompletionTest extends EmptyProjectTest
 				context.setTriggerCharacter(triggerChar);
 			}
 			params.setContext(context);
-			var completions = getContext().documentService().completion(params).get(1, TimeUnit.MINUTES).getLeft();
+			var completions = getContext().documentService().completion(params).get(1, TimeUnit.MINUTES).getRight();
 
 			var resolvedCompletes = new ArrayList<CompletionItem>();
-			for (var unresolved : completions)
+			for (var unresolved : completions.getItems())
 			{
 				var resolved = getContext().languageService().resolveComplete(unresolved);
 				resolvedCompletes.add(resolved);
 			}
-			return new CompletionAssertion(resolvedCompletes, cursor.source());
+			return new CompletionAssertion(resolvedCompletes, cursor.source(), completions.isIncomplete());
 		}
 		catch (Exception e)
 		{
@@ -50,8 +50,14 @@ public abstract class CompletionTest extends EmptyProjectTest
 		return assertCompletions(libName, fileName, null, sourceWithCursor);
 	}
 
-	record CompletionAssertion(List<CompletionItem> items, String source)
+	record CompletionAssertion(List<CompletionItem> items, String source, boolean isIncomplete)
 	{
+		CompletionAssertion assertIncomplete()
+		{
+			assertThat(isIncomplete).as("Expected the completion list to be incomplete").isTrue();
+			return this;
+		}
+
 		CompletionAssertion assertContainsVariable(String label)
 		{
 			return assertContains(label, CompletionItemKind.Variable);
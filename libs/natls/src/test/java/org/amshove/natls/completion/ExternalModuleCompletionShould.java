@@ -158,6 +158,33 @@ class ExternalModuleCompletionShould extends CompletionTest
 			.assertContainsOnlyKinds(CompletionItemKind.Method, CompletionItemKind.Event);
 	}
 
+	@Test
+	void onlyContainCallnatsStartingWithTheTypedNameAndAskTheClientToCompleteAgain()
+	{
+		createOrSaveFile("LIBONE", "SUBN.NSN", """
+			DEFINE DATA PARAMETER
+			1 #PARAM (A10)
+			END-DEFINE
+			END
+			""");
+		createOrSaveFile("LIBONE", "OTHERN.NSN", """
+			DEFINE DATA PARAMETER
+			1 #PARAM (A10)
+			END-DEFINE
+			END
+			""");
+
+		assertCompletions("LIBONE", "SUB2.NSN", """
+			DEFINE DATA LOCAL
+			END-DEFINE
+			CALLNAT 'SU${}$'
+			END
+			""")
+			.assertContains("SUBN", CompletionItemKind.Class)
+			.assertDoesNotContain("OTHERN")
+			.assertIncomplete();
+	}
+
 	@Test
 	void completeExternalSubroutinesWithoutPerformKeywordWhenPerformIsAlreadyPresentAndSomeOfTheNameOfTheSubroutineWasTyped()
 	{
@@ -0,0 +1,149 @@
+package org.amshove.natls.diagnostics;
+
+import org.amshove.natls.project.LanguageServerFile;
+import org.amshove.natls.project.ParseLevel;
+import org.amshove.natls.testlifecycle.EmptyProjectTest;
+import org.amshove.natparse.natural.project.NaturalFile;
+import org.amshove.natparse.natural.project.NaturalFileType;
+import org.amshove.natparse.natural.project.NaturalLibrary;
+import org.eclipse.lsp4j.DocumentDiagnosticParams;
+import org.eclipse.lsp4j.PreviousResultId;
+import org.eclipse.lsp4j.WorkspaceDiagnosticParams;
+import org.eclipse.lsp4j.WorkspaceDiagnosticReportPartialResult;
+import org.eclipse.lsp4j.WorkspaceDocumentDiagnosticReport;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PullDiagnosticsEndpointShould extends EmptyProjectTest
+{
+	private static final String SOURCE_WITH_UNUSED_VARIABLE = """
+		DEFINE DATA
+		LOCAL
+		1 #UNUSED (A10)
+		END-DEFINE
+		END
+		""";
+
+	@Test
+	void reportAllDiagnosticsOfADocumentWithAResultId()
+	{
+		var document = createOrSaveFile("LIBONE", "PULLDIAG.NSN", SOURCE_WITH_UNUSED_VARIABLE);
+
+		var report = await(getContext().documentService().diagnostic(new DocumentDiagnosticParams(document)));
+
+		assertThat(report.isLeft()).isTrue();
+		assertThat(report.getLeft().getResultId()).isNotNull();
+		assertThat(report.getLeft().getItems()).isNotEmpty();
+	}
+
+	@Test
+	void reportADocumentAsUnchangedIfItsDiagnosticsDidNotChange()
+	{
+		var document = createOrSaveFile("LIBONE", "PULLDIAG.NSN", SOURCE_WITH_UNUSED_VARIABLE);
+		var firstReport = await(getContext().documentService().diagnostic(new DocumentDiagnosticParams(document)));
+
+		createOrSaveFile("LIBONE", "PULLDIAG.NSN", SOURCE_WITH_UNUSED_VARIABLE);
+		var params = new DocumentDiagnosticParams(document);
+		params.setPreviousResultId(firstReport.getLeft().getResultId());
+		var secondReport = await(getContext().documentService().diagnostic(params));
+
+		assertThat(secondReport.isRight()).isTrue();
+		assertThat(secondReport.getRight().getResultId()).isEqualTo(firstReport.getLeft().getResultId());
+	}
+
+	@Test
+	void reportAllDiagnosticsAgainIfTheyChanged()
+	{
+		var document = createOrSaveFile("LIBONE", "PULLDIAG.NSN", SOURCE_WITH_UNUSED_VARIABLE);
+		var firstReport = await(getContext().documentService().diagnostic(new DocumentDiagnosticParams(document)));
+
+		createOrSaveFile("LIBONE", "PULLDIAG.NSN", """
+			DEFINE DATA
+			LOCAL
+			1 #USED (A10)
+			END-DEFINE
+			WRITE #USED
+			END
+			""");
+		var params = new DocumentDiagnosticParams(document);
+		params.setPreviousResultId(firstReport.getLeft().getResultId());
+		var secondReport = await(getContext().documentService().diagnostic(params));
+
+		assertThat(secondReport.isLeft()).isTrue();
+		assertThat(secondReport.getLeft().getResultId()).isNotEqualTo(firstReport.getLeft().getResultId());
+	}
+
+	@Test
+	void reportUnchangedFilesOfTheWorkspaceAsUnchanged()
+	{
+		var document = createOrSaveFile("LIBONE", "PULLDIAG.NSN", SOURCE_WITH_UNUSED_VARIABLE);
+		var firstReport = await(getContext().workspaceService().diagnostic(new WorkspaceDiagnosticParams(List.of())));
+		var fullReport = firstReport.getItems().stream()
+			.filter(WorkspaceDocumentDiagnosticReport::isLeft)
+			.map(WorkspaceDocumentDiagnosticReport::getLeft)
+			.filter(r -> r.getUri().equals(document.getUri()))
+			.findFirst()
+			.orElseThrow();
+		assertThat(fullReport.getItems()).isNotEmpty();
+
+		var secondReport = await(
+			getContext().workspaceService().diagnostic(
+				new WorkspaceDiagnosticParams(List.of(new PreviousResultId(document.getUri(), fullReport.getResultId())))
+			)
+		);
+
+		assertThat(secondReport.getItems())
+			.filteredOn(WorkspaceDocumentDiagnosticReport::isRight)
+			.anyMatch(r -> r.getRight().getUri().equals(document.getUri()));
+	}
+
+	@Test
+	void streamWorkspaceDiagnosticsAsPartialResultsIfRequested()
+	{
+		var document = createOrSaveFile("LIBONE", "PULLDIAG.NSN", SOURCE_WITH_UNUSED_VARIABLE);
+		var params = new WorkspaceDiagnosticParams(List.of());
+		params.setPartialResultToken(Either.forLeft("partial-diagnostics"));
+
+		var report = await(getContext().workspaceService().diagnostic(params));
+
+		assertThat(report.getItems()).isEmpty();
+		assertThat(getContext().client().getProgressNotifications())
+			.filteredOn(p -> p.getToken().getLeft().equals("partial-diagnostics"))
+			.flatMap(p -> ((WorkspaceDiagnosticReportPartialResult) p.getValue().getRight()).getItems())
+			.anyMatch(r -> r.isLeft() && r.getLeft().getUri().equals(document.getUri()));
+	}
+
+	@Test
+	void notParseFilesForAWorkspaceReport(@TempDir Path directory) throws IOException
+	{
+		var path = Files.writeString(directory.resolve("UNPARSED.NSN"), SOURCE_WITH_UNUSED_VARIABLE);
+		var file = LanguageServerFile.fromFile(new NaturalFile("UNPARSED", path, NaturalFileType.SUBPROGRAM, new NaturalLibrary(directory)));
+
+		var report = new PullDiagnosticsProvider().workspaceReport(List.of(file), List.of(), null);
+
+		assertThat(report.getItems()).isEmpty();
+		assertThat(file.isParsedTo(ParseLevel.HEADER)).isFalse();
+	}
+
+	private static <T> T await(CompletableFuture<T> future)
+	{
+		try
+		{
+			return future.get(5, TimeUnit.SECONDS);
+		}
+		catch (Exception e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+}
@@ -4,6 +4,8 @@ import org.amshove.natls.testlifecycle.EmptyProjectTest;
 import org.eclipse.lsp4j.*;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.List;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
@@ -49,6 +51,67 @@ class NaturalWorkspaceServiceShould extends EmptyProjectTest
 			.isNull();
 	}
 
+	@Test
+	void notAddAFileThatIsCreatedAndDeletedWithinTheSameBatch() throws IOException
+	{
+		var library = getContext().project().libraries().stream().filter(l -> l.name().equals("LIBONE")).findFirst().orElseThrow();
+		var path = library.getSourcePath().resolve("TRANSNT.NSN");
+		Files.writeString(path, """
+			DEFINE DATA LOCAL
+			END-DEFINE
+			END
+			""");
+		var uri = path.toUri().toString();
+
+		getContext().workspaceService().didChangeWatchedFiles(
+			new DidChangeWatchedFilesParams(
+				List.of(
+					new FileEvent(uri, FileChangeType.Created),
+					new FileEvent(uri, FileChangeType.Changed),
+					new FileEvent(uri, FileChangeType.Deleted)
+				)
+			)
+		);
+
+		assertThat(getContext().languageService().findNaturalFile("LIBONE", "TRANSNT")).isNull();
+	}
+
+	@Test
+	void addAllFilesCreatedWithinOneBatch() throws IOException
+	{
+		var library = getContext().project().libraries().stream().filter(l -> l.name().equals("LIBONE")).findFirst().orElseThrow();
+		var lda = library.getSourcePath().resolve("BATCHLDA.NSL");
+		Files.writeString(lda, """
+			DEFINE DATA LOCAL
+			1 #FROM-LDA (A10)
+			END-DEFINE
+			""");
+		var subprogram = library.getSourcePath().resolve("BATCHSUB.NSN");
+		Files.writeString(subprogram, """
+			DEFINE DATA
+			LOCAL USING BATCHLDA
+			END-DEFINE
+			WRITE #FROM-LDA
+			END
+			""");
+
+		getContext().workspaceService().didChangeWatchedFiles(
+			new DidChangeWatchedFilesParams(
+				List.of(
+					new FileEvent(subprogram.toUri().toString(), FileChangeType.Created),
+					new FileEvent(lda.toUri().toString(), FileChangeType.Created)
+				)
+			)
+		);
+
+		var parsedSubprogram = getContext().languageService().findNaturalFile("LIBONE", "BATCHSUB");
+		assertThat(parsedSubprogram).isNotNull();
+		assertThat(getContext().languageService().findNaturalFile("LIBONE", "BATCHLDA")).isNotNull();
+		assertThat(parsedSubprogram.allDiagnostics())
+			.as("The subprogram should be parsed after the LDA it uses")
+			.noneMatch(d -> d.getMessage().startsWith("Unresolved"));
+	}
+
 	@Test
 	void reparseExternallyChangedModulesIfTheyAreNotOpenedAndParseTheirCallersIfTheyAreOpen()
 	{
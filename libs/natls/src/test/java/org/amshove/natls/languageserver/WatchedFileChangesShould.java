@@ -0,0 +1,88 @@
+package org.amshove.natls.languageserver;
+
+import org.eclipse.lsp4j.FileChangeType;
+import org.eclipse.lsp4j.FileEvent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WatchedFileChangesShould
+{
+	private static final Path MODULE = Path.of("Natural-Libraries", "LIBONE", "SUB.NSN").toAbsolutePath();
+	private static final Path OTHER_MODULE = Path.of("Natural-Libraries", "LIBONE", "OTHER.NSN").toAbsolutePath();
+
+	@Test
+	void reportEachPathOnlyOnce()
+	{
+		var changes = coalesce(event(MODULE, FileChangeType.Changed), event(MODULE, FileChangeType.Changed));
+
+		assertThat(changes.changed()).containsExactly(MODULE);
+	}
+
+	@Test
+	void dropFilesThatAreCreatedAndDeletedAgain()
+	{
+		var changes = coalesce(event(MODULE, FileChangeType.Created), event(MODULE, FileChangeType.Changed), event(MODULE, FileChangeType.Deleted));
+
+		assertThat(changes.isEmpty()).isTrue();
+	}
+
+	@Test
+	void treatCreatedAndChangedFilesAsCreated()
+	{
+		var changes = coalesce(event(MODULE, FileChangeType.Created), event(MODULE, FileChangeType.Changed));
+
+		assertThat(changes.created()).containsExactly(MODULE);
+		assertThat(changes.changed()).isEmpty();
+	}
+
+	@Test
+	void treatDeletedAndCreatedFilesAsChanged()
+	{
+		var changes = coalesce(event(MODULE, FileChangeType.Deleted), event(MODULE, FileChangeType.Created));
+
+		assertThat(changes.changed()).containsExactly(MODULE);
+		assertThat(changes.created()).isEmpty();
+		assertThat(changes.deleted()).isEmpty();
+	}
+
+	@Test
+	void treatChangedAndDeletedFilesAsDeleted()
+	{
+		var changes = coalesce(event(MODULE, FileChangeType.Changed), event(MODULE, FileChangeType.Deleted));
+
+		assertThat(changes.deleted()).containsExactly(MODULE);
+		assertThat(changes.changed()).isEmpty();
+	}
+
+	@Test
+	void ignoreFilesThatAreNoNaturalModules()
+	{
+		var changes = coalesce(event(Path.of("README.md").toAbsolutePath(), FileChangeType.Changed));
+
+		assertThat(changes.isEmpty()).isTrue();
+	}
+
+	@Test
+	void keepChangesOfDifferentFilesApart()
+	{
+		var changes = coalesce(event(MODULE, FileChangeType.Created), event(OTHER_MODULE, FileChangeType.Deleted));
+
+		assertThat(changes.created()).containsExactly(MODULE);
+		assertThat(changes.deleted()).containsExactly(OTHER_MODULE);
+	}
+
+	private static WatchedFileChanges coalesce(FileEvent... events)
+	{
+		return WatchedFileChanges.coalesce(Arrays.asList(events));
+	}
+
+	private static FileEvent event(Path path, FileChangeType type)
+	{
+		return new FileEvent(path.toUri().toString(), type);
+	}
+}
@@ -0,0 +1,67 @@
+package org.amshove.natls.languageserver.constantfinding;
+
+import org.amshove.natls.testlifecycle.LanguageServerTest;
+import org.amshove.natls.testlifecycle.LspProjectName;
+import org.amshove.natls.testlifecycle.LspTest;
+import org.amshove.natls.testlifecycle.LspTestContext;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@LspTest
+class ConstantsIndexShould extends LanguageServerTest
+{
+	private static LspTestContext testContext;
+
+	@BeforeAll
+	static void setupProject(@LspProjectName("emptyproject") LspTestContext context)
+	{
+		testContext = context;
+	}
+
+	@Test
+	void reuseExtractedConstantsAsLongAsTheDataAreaDoesNotChange()
+	{
+		var lda = createOrSaveLanguageServerFile("LIBONE", "CONSTLDA.NSL", """
+			DEFINE DATA
+			LOCAL
+			1 #FIRST (A5) CONST<'FIRST'>
+			1 #NOT-A-CONSTANT (N2)
+			END-DEFINE
+			""");
+		var index = new ConstantsIndex();
+
+		var constants = index.constantsOf(lda);
+		assertThat(constants).containsExactly(new FoundConstant("#FIRST", "CONSTLDA", "'FIRST'"));
+		assertThat(index.constantsOf(lda)).isSameAs(constants);
+	}
+
+	@Test
+	void extractConstantsAgainWhenTheDataAreaChanged()
+	{
+		var lda = createOrSaveLanguageServerFile("LIBONE", "CONSTLDA.NSL", """
+			DEFINE DATA
+			LOCAL
+			1 #FIRST (A5) CONST<'FIRST'>
+			END-DEFINE
+			""");
+		var index = new ConstantsIndex();
+		index.constantsOf(lda);
+
+		createOrSaveLanguageServerFile("LIBONE", "CONSTLDA.NSL", """
+			DEFINE DATA
+			LOCAL
+			1 #SECOND (N2) CONST<2>
+			END-DEFINE
+			""");
+
+		assertThat(index.constantsOf(lda)).containsExactly(new FoundConstant("#SECOND", "CONSTLDA", "2"));
+	}
+
+	@Override
+	protected LspTestContext getContext()
+	{
+		return testContext;
+	}
+}
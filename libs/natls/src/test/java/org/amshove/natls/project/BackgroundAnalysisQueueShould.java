@@ -0,0 +1,184 @@
+package org.amshove.natls.project;
+
+import org.amshove.natls.config.LSConfiguration;
+import org.amshove.natls.testlifecycle.LanguageServerTest;
+import org.amshove.natls.testlifecycle.LspProjectName;
+import org.amshove.natls.testlifecycle.LspTest;
+import org.amshove.natls.testlifecycle.LspTestContext;
+import org.amshove.natparse.natural.IHasDefineData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@LspTest
+class BackgroundAnalysisQueueShould extends LanguageServerTest
+{
+	private static LspTestContext testContext;
+
+	private final List<LanguageServerFile> analyzedFiles = new CopyOnWriteArrayList<>();
+	private CountDownLatch idle = new CountDownLatch(1);
+	private final BackgroundAnalysisQueue queue = new BackgroundAnalysisQueue(analyzedFiles::add, () -> idle.countDown());
+
+	@BeforeAll
+	static void setupProject(@LspProjectName("emptyproject") LspTestContext context)
+	{
+		testContext = context;
+	}
+
+	@AfterEach
+	void stopWorkers()
+	{
+		queue.configChanged(LSConfiguration.createDefault());
+	}
+
+	@Test
+	void notQueueAnythingWhenDisabled()
+	{
+		queue.configChanged(LSConfiguration.createDefault());
+
+		queue.enqueue(createFile("BGDIS"), BackgroundAnalysisQueue.Priority.OPEN_EDITOR);
+
+		assertThat(queue.isEnabled()).isFalse();
+		assertThat(analyzedFiles).isEmpty();
+	}
+
+	@Test
+	void analyzeOpenEditorsBeforeCallersOfChangedModules() throws InterruptedException
+	{
+		var blocker = createFile("BGBLOCK");
+		var caller = createFile("BGCALL");
+		var openFile = createFile("BGOPEN");
+
+		BackgroundAnalysisQueue.interactiveRequestStarted();
+		try
+		{
+			enableWithOneWorker();
+			occupyWorkerWith(blocker);
+			queue.enqueue(caller, BackgroundAnalysisQueue.Priority.CALLER_OF_CHANGED_MODULE);
+			queue.enqueue(openFile, BackgroundAnalysisQueue.Priority.OPEN_EDITOR);
+		}
+		finally
+		{
+			BackgroundAnalysisQueue.interactiveRequestFinished();
+		}
+
+		awaitIdle();
+		assertThat(analyzedFiles).containsExactly(blocker, openFile, caller);
+	}
+
+	@Test
+	void analyzeAFileOnlyOnceWhenItIsQueuedWithDifferentPriorities() throws InterruptedException
+	{
+		var blocker = createFile("BGBLOCK");
+		var file = createFile("BGONCE");
+
+		BackgroundAnalysisQueue.interactiveRequestStarted();
+		try
+		{
+			enableWithOneWorker();
+			occupyWorkerWith(blocker);
+			queue.enqueue(file, BackgroundAnalysisQueue.Priority.CALLER_OF_CHANGED_MODULE);
+			queue.enqueue(file, BackgroundAnalysisQueue.Priority.OPEN_EDITOR);
+			queue.enqueue(file, BackgroundAnalysisQueue.Priority.CALLER_OF_CHANGED_MODULE);
+		}
+		finally
+		{
+			BackgroundAnalysisQueue.interactiveRequestFinished();
+		}
+
+		awaitIdle();
+		assertThat(analyzedFiles).containsExactly(blocker, file);
+	}
+
+	@Test
+	void skipWorkspaceFilesThatAreAlreadyAnalyzed() throws InterruptedException
+	{
+		var analyzedFile = createFile("BGDONE");
+		enableWithOneWorker();
+
+		queue.enqueue(analyzedFile, BackgroundAnalysisQueue.Priority.WORKSPACE);
+
+		awaitIdle();
+		assertThat(analyzedFiles).isEmpty();
+	}
+
+	@Test
+	void notReplaceTheUnsavedChangesOfOpenFiles() throws InterruptedException
+	{
+		var openFile = createFile("BGUNSAVED");
+		openFile.open();
+		try
+		{
+			openFile.changed("""
+				DEFINE DATA
+				LOCAL
+				1 #UNSAVED (A10)
+				END-DEFINE
+				WRITE #UNSAVED
+				END
+				""");
+			var version = openFile.version();
+			enableWithOneWorker();
+
+			queue.enqueue(openFile, BackgroundAnalysisQueue.Priority.OPEN_EDITOR);
+
+			awaitIdle();
+			assertThat(analyzedFiles).isEmpty();
+			assertThat(openFile.version()).isEqualTo(version);
+			assertThat(((IHasDefineData) openFile.module()).defineData().findVariable("#UNSAVED")).isNotNull();
+		}
+		finally
+		{
+			openFile.close();
+		}
+	}
+
+	/**
+	 * Queues a file with the highest priority, so that it is analyzed first. While interactive requests are in flight,
+	 * the worker waits with it before analyzing, which leaves the files queued afterward in the queue.
+	 */
+	private void occupyWorkerWith(LanguageServerFile blocker)
+	{
+		queue.enqueue(blocker, BackgroundAnalysisQueue.Priority.OPEN_EDITOR);
+	}
+
+	private void enableWithOneWorker()
+	{
+		var config = LSConfiguration.createDefault();
+		config.getAnalysis().setBackground(true);
+		config.getAnalysis().setMaxWorkers(1);
+		config.getAnalysis().setMaxHeapUsagePercent(100);
+		queue.configChanged(config);
+	}
+
+	private void awaitIdle() throws InterruptedException
+	{
+		assertThat(idle.await(10, TimeUnit.SECONDS)).as("Background analysis did not finish").isTrue();
+		idle = new CountDownLatch(1);
+	}
+
+	private LanguageServerFile createFile(String name)
+	{
+		return createOrSaveLanguageServerFile("LIBONE", name + ".NSN", """
+			DEFINE DATA
+			LOCAL
+			1 #VAR (A10)
+			END-DEFINE
+			WRITE #VAR
+			END
+			""");
+	}
+
+	@Override
+	protected LspTestContext getContext()
+	{
+		return testContext;
+	}
+}
@@ -0,0 +1,108 @@
+package org.amshove.natls.project;
+
+import org.amshove.natls.testlifecycle.LanguageServerTest;
+import org.amshove.natls.testlifecycle.LspProjectName;
+import org.amshove.natls.testlifecycle.LspTest;
+import org.amshove.natls.testlifecycle.LspTestContext;
+import org.amshove.natparse.natural.IHasDefineData;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@LspTest
+class LanguageServerFileParseLevelShould extends LanguageServerTest
+{
+	private static LspTestContext testContext;
+
+	@BeforeAll
+	static void setupProject(@LspProjectName("module_provider_tests") LspTestContext context)
+	{
+		testContext = context;
+	}
+
+	@Test
+	void onlyLexTheSourceForTheHeaderLevel()
+	{
+		var file = unparsedFile();
+		var module = file.module(ParseLevel.HEADER);
+
+		assertThat(module).isNotNull();
+		assertThat(module.tokens()).isNotEmpty();
+		assertThat(((IHasDefineData) module).defineData()).isNull();
+		assertThat(file.isParsedTo(ParseLevel.HEADER)).isTrue();
+		assertThat(file.isParsedTo(ParseLevel.DEFINE_DATA)).isFalse();
+	}
+
+	@Test
+	void notParseTheBodyWhenOnlyTheDefineDataIsRequested()
+	{
+		var file = unparsedFile();
+		var module = file.module(ParseLevel.DEFINE_DATA);
+
+		assertThat(((IHasDefineData) module).defineData().findVariable("THEVIEW")).isNotNull();
+		assertThat(module.syntaxTree()).isNull();
+		assertThat(file.isParsedTo(ParseLevel.DEFINE_DATA)).isTrue();
+		assertThat(file.isParsedTo(ParseLevel.BODY)).isFalse();
+	}
+
+	@Test
+	void parseHigherLevelsOnDemand()
+	{
+		var file = unparsedFile();
+		file.module(ParseLevel.DEFINE_DATA);
+		var module = file.module(ParseLevel.BODY);
+
+		assertThat(module.syntaxTree()).isNotNull();
+		assertThat(file.isParsedTo(ParseLevel.BODY)).isTrue();
+	}
+
+	@Test
+	void reuseTheModuleIfTheRequestedLevelIsAlreadyParsed()
+	{
+		var file = unparsedFile();
+		var fullyParsed = file.module(ParseLevel.ANALYZED);
+
+		assertThat(file.module(ParseLevel.DEFINE_DATA)).isSameAs(fullyParsed);
+		assertThat(file.module(ParseLevel.BODY)).isSameAs(fullyParsed);
+		assertThat(file.module()).isSameAs(fullyParsed);
+	}
+
+	@Test
+	void keepPublishedSnapshotsUnchangedWhenTheFileIsReparsed()
+	{
+		var file = unparsedFile();
+		var firstSnapshot = file.snapshot();
+		var firstTokens = firstSnapshot.tokens();
+
+		file.changed("""
+			DEFINE DATA
+			LOCAL
+			1 #CHANGED (A10)
+			END-DEFINE
+			END
+			""");
+		var secondSnapshot = file.snapshot();
+
+		assertThat(secondSnapshot.version()).isGreaterThan(firstSnapshot.version());
+		assertThat(secondSnapshot.module()).isNotSameAs(firstSnapshot.module());
+		assertThat(firstSnapshot.tokens()).isSameAs(firstTokens);
+		assertThat(((IHasDefineData) firstSnapshot.module()).defineData().findVariable("THEVIEW")).isNotNull();
+		assertThat(((IHasDefineData) secondSnapshot.module()).defineData().findVariable("#CHANGED")).isNotNull();
+		assertThat(secondSnapshot.tokens().stream().anyMatch(t -> t.source().equals("#CHANGED"))).isTrue();
+	}
+
+	private LanguageServerFile unparsedFile()
+	{
+		var projectFile = testContext.project().findFileByReferableName("SUB");
+		var file = new LanguageServerFile(projectFile.getNaturalFile());
+		file.setLibrary(projectFile.getLibrary());
+		return file;
+	}
+
+	@Override
+	protected LspTestContext getContext()
+	{
+		return testContext;
+	}
+}
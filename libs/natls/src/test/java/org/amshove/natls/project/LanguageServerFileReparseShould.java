@@ -0,0 +1,127 @@
+package org.amshove.natls.project;
+
+import org.amshove.natls.testlifecycle.LanguageServerTest;
+import org.amshove.natls.testlifecycle.LspProjectName;
+import org.amshove.natls.testlifecycle.LspTest;
+import org.amshove.natls.testlifecycle.LspTestContext;
+import org.amshove.natparse.NodeUtil;
+import org.amshove.natparse.natural.IHasDefineData;
+import org.amshove.natparse.natural.IModuleWithBody;
+import org.amshove.natparse.natural.ISymbolReferenceNode;
+import org.amshove.natparse.natural.IUsingNode;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@LspTest
+class LanguageServerFileReparseShould extends LanguageServerTest
+{
+	private static LspTestContext testContext;
+
+	@Test
+	void keepTheDefineDataWhenOnlyTheBodyChanged(@LspProjectName("emptyproject") LspTestContext context)
+	{
+		testContext = context;
+		var lda = createLda();
+		var subprogram = createSubprogram();
+		subprogram.open();
+		var previousDefineData = ((IHasDefineData) subprogram.module()).defineData();
+
+		subprogram.changed("""
+			DEFINE DATA
+			LOCAL USING MYLDA
+			END-DEFINE
+			WRITE #LDAVAR
+			WRITE #LDAVAR
+			END
+			""");
+
+		var defineData = ((IHasDefineData) subprogram.module()).defineData();
+		assertThat(defineData).isSameAs(previousDefineData);
+		assertThat(defineData.findVariable("#LDAVAR").references())
+			.as("References of the previous body should be gone")
+			.hasSize(2);
+		assertThat(lda.module().callers()).singleElement().isInstanceOf(IUsingNode.class);
+		assertThat(subprogram.getOutgoingReferences()).contains(lda);
+		assertThat(lda.getIncomingReferences()).contains(subprogram);
+	}
+
+	@Test
+	void reparseTheDefineDataWhenItChanged(@LspProjectName("emptyproject") LspTestContext context)
+	{
+		testContext = context;
+		createLda();
+		var subprogram = createSubprogram();
+		subprogram.open();
+		var previousDefineData = ((IHasDefineData) subprogram.module()).defineData();
+
+		subprogram.changed("""
+			DEFINE DATA
+			LOCAL USING MYLDA
+			LOCAL 1 #NEW (A10)
+			END-DEFINE
+			WRITE #LDAVAR #NEW
+			END
+			""");
+
+		var defineData = ((IHasDefineData) subprogram.module()).defineData();
+		assertThat(defineData).isNotSameAs(previousDefineData);
+		assertThat(defineData.findVariable("#NEW")).isNotNull();
+	}
+
+	@Test
+	void leaveTheTreeOfAPreviousSnapshotIntact(@LspProjectName("emptyproject") LspTestContext context)
+	{
+		testContext = context;
+		createLda();
+		var subprogram = createSubprogram();
+		subprogram.open();
+		var previousSnapshot = subprogram.snapshot();
+		var previousReference = NodeUtil.findNodesOfType(((IModuleWithBody) previousSnapshot.module()).body(), ISymbolReferenceNode.class).getFirst();
+
+		subprogram.changed("""
+			DEFINE DATA
+			LOCAL USING MYLDA
+			LOCAL 1 #NEW (A10)
+			END-DEFINE
+			WRITE #LDAVAR #NEW
+			END
+			""");
+
+		assertThat(previousReference.reference())
+			.as("The tree of the previous snapshot should not be modified")
+			.isNotNull();
+		var ldaVariable = ((IHasDefineData) subprogram.module()).defineData().findVariable("#LDAVAR");
+		assertThat(ldaVariable).isSameAs(previousReference.reference());
+		assertThat(ldaVariable.references())
+			.as("The shared variable of the data area should only be referenced by the new tree")
+			.doesNotContain(previousReference)
+			.hasSize(1);
+	}
+
+	private LanguageServerFile createLda()
+	{
+		return createOrSaveLanguageServerFile("LIBONE", "MYLDA.NSL", """
+			DEFINE DATA LOCAL
+			1 #LDAVAR (A10)
+			END-DEFINE
+			""");
+	}
+
+	private LanguageServerFile createSubprogram()
+	{
+		return createOrSaveLanguageServerFile("LIBONE", "SUB.NSN", """
+			DEFINE DATA
+			LOCAL USING MYLDA
+			END-DEFINE
+			WRITE #LDAVAR
+			END
+			""");
+	}
+
+	@Override
+	protected LspTestContext getContext()
+	{
+		return testContext;
+	}
+}
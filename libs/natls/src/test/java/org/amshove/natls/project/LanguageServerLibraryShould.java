@@ -0,0 +1,132 @@
+package org.amshove.natls.project;
+
+import org.amshove.natparse.natural.project.NaturalFile;
+import org.amshove.natparse.natural.project.NaturalFileType;
+import org.amshove.natparse.natural.project.NaturalLibrary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LanguageServerLibraryShould
+{
+	private NaturalLibrary naturalLibrary;
+	private NaturalLibrary naturalStepLib;
+	private LanguageServerLibrary library;
+	private LanguageServerLibrary stepLib;
+
+	@BeforeEach
+	void setup()
+	{
+		naturalLibrary = new NaturalLibrary(Path.of("LIBONE"));
+		naturalStepLib = new NaturalLibrary(Path.of("STEPLIB"));
+		naturalLibrary.addStepLib(naturalStepLib);
+
+		addFile(naturalLibrary, "SUB", NaturalFileType.SUBPROGRAM);
+		addFile(naturalLibrary, "MYLDA", NaturalFileType.LDA);
+		addFile(naturalStepLib, "STEPSUB", NaturalFileType.SUBPROGRAM);
+		addFile(naturalStepLib, "STEPLDA", NaturalFileType.LDA);
+
+		library = LanguageServerLibrary.fromLibrary(naturalLibrary);
+		stepLib = LanguageServerLibrary.fromLibrary(naturalStepLib);
+		var librariesByName = Map.of(library.name(), library, stepLib.name(), stepLib);
+		library.referenceStepLibs(librariesByName);
+		stepLib.referenceStepLibs(librariesByName);
+	}
+
+	@Test
+	void returnModulesOfATypeIncludingSteplibsInPrecedenceOrder()
+	{
+		assertThat(library.getModulesOfType(NaturalFileType.LDA, true))
+			.extracting(LanguageServerFile::getReferableName)
+			.containsExactly("MYLDA", "STEPLDA");
+		assertThat(library.getModulesOfType(NaturalFileType.LDA, false))
+			.extracting(LanguageServerFile::getReferableName)
+			.containsExactly("MYLDA");
+	}
+
+	@Test
+	void notReturnDdmsAsModulesOfAType()
+	{
+		addFile(naturalLibrary, "MYDDM", NaturalFileType.DDM);
+		var libraryWithDdm = LanguageServerLibrary.fromLibrary(naturalLibrary);
+
+		assertThat(libraryWithDdm.getModulesOfType(NaturalFileType.DDM, false)).isEmpty();
+	}
+
+	@Test
+	void resolveModulesFromSteplibs()
+	{
+		var resolved = library.provideNaturalModule("STEPSUB", true, NaturalFileType.SUBPROGRAM);
+		assertThat(resolved).isNotNull();
+		assertThat(resolved.getLibrary()).isSameAs(stepLib);
+		assertThat(library.provideNaturalModule("STEPSUB", false, NaturalFileType.SUBPROGRAM)).isNull();
+	}
+
+	@Test
+	void resolveModulesThatAreAddedToASteplibAfterTheyHaveBeenLookedUp()
+	{
+		assertThat(library.provideNaturalModule("NEWSUB", true, NaturalFileType.SUBPROGRAM)).isNull();
+
+		var newFile = new LanguageServerFile(new NaturalFile("NEWSUB", Path.of("STEPLIB", "NEWSUB.NSN"), NaturalFileType.SUBPROGRAM));
+		stepLib.addFile(newFile);
+
+		assertThat(library.provideNaturalModule("NEWSUB", true, NaturalFileType.SUBPROGRAM)).isSameAs(newFile);
+		assertThat(library.getModulesOfType(NaturalFileType.SUBPROGRAM, true)).contains(newFile);
+	}
+
+	@Test
+	void notResolveModulesThatHaveBeenRemovedFromASteplib()
+	{
+		var stepSub = library.provideNaturalModule("STEPSUB", true, NaturalFileType.SUBPROGRAM);
+
+		stepLib.remove(stepSub);
+
+		assertThat(library.provideNaturalModule("STEPSUB", true, NaturalFileType.SUBPROGRAM)).isNull();
+		assertThat(library.getModulesOfType(NaturalFileType.SUBPROGRAM, true)).doesNotContain(stepSub);
+	}
+
+	@Test
+	void rankModulesMatchingAQueryByHowWellTheyMatch()
+	{
+		addLanguageServerFile("CUSTOMER", NaturalFileType.SUBPROGRAM);
+		addLanguageServerFile("CUSTOMERS", NaturalFileType.SUBPROGRAM);
+		addLanguageServerFile("GETCUSTOMER", NaturalFileType.SUBPROGRAM);
+		addLanguageServerFile("CUSTMER", NaturalFileType.SUBPROGRAM);
+		addLanguageServerFile("ORDER", NaturalFileType.SUBPROGRAM);
+
+		var matches = library.findModulesMatching("customer").stream()
+			.sorted(ModuleNameMatch.BEST_FIRST)
+			.map(m -> m.file().getReferableName())
+			.toList();
+
+		assertThat(matches).containsExactly("CUSTOMER", "CUSTOMERS", "GETCUSTOMER", "CUSTMER");
+	}
+
+	@Test
+	void notFindModulesByNameAfterTheyHaveBeenRemoved()
+	{
+		var file = addLanguageServerFile("CUSTOMER", NaturalFileType.SUBPROGRAM);
+		assertThat(library.findModulesMatching("STOM")).extracting(ModuleNameMatch::file).containsExactly(file);
+
+		library.remove(file);
+
+		assertThat(library.findModulesMatching("STOM")).isEmpty();
+		assertThat(library.findModulesMatching("ST")).extracting(ModuleNameMatch::file).doesNotContain(file);
+	}
+
+	private LanguageServerFile addLanguageServerFile(String name, NaturalFileType type)
+	{
+		var file = new LanguageServerFile(new NaturalFile(name, Path.of("LIBONE", name + "." + type.getExtension()), type));
+		library.addFile(file);
+		return file;
+	}
+
+	private void addFile(NaturalLibrary naturalLibrary, String name, NaturalFileType type)
+	{
+		naturalLibrary.addFile(new NaturalFile(name, naturalLibrary.getSourcePath().resolve(name + "." + type.getExtension()), type));
+	}
+}
@@ -0,0 +1,116 @@
+package org.amshove.natls.project;
+
+import org.amshove.natls.project.ParameterSignature.Parameter;
+import org.amshove.natls.testlifecycle.LanguageServerTest;
+import org.amshove.natls.testlifecycle.LspProjectName;
+import org.amshove.natls.testlifecycle.LspTest;
+import org.amshove.natls.testlifecycle.LspTestContext;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@LspTest
+class ParameterSignatureIndexShould extends LanguageServerTest
+{
+	private static LspTestContext testContext;
+
+	@BeforeAll
+	static void setupProject(@LspProjectName("emptyproject") LspTestContext context)
+	{
+		testContext = context;
+	}
+
+	@Test
+	void containTheParametersInOrder()
+	{
+		var subprogram = createOrSaveLanguageServerFile("LIBONE", "SIGSUB.NSN", """
+			DEFINE DATA
+			PARAMETER
+			1 #FIRST (A10)
+			1 #SECOND (N2) BY VALUE
+			1 #THIRD (I4/1:*) OPTIONAL
+			END-DEFINE
+			END
+			""");
+
+		assertThat(ParameterSignatureIndex.signatureOf(subprogram).parameters()).containsExactly(
+			new Parameter("#FIRST"),
+			new Parameter("#SECOND"),
+			new Parameter("#THIRD")
+		);
+	}
+
+	@Test
+	void reuseTheSignatureWhenOnlyTheBodyChanged()
+	{
+		var subprogram = createOrSaveLanguageServerFile("LIBONE", "SIGBODY.NSN", """
+			DEFINE DATA
+			PARAMETER
+			1 #FIRST (A10)
+			END-DEFINE
+			END
+			""");
+		var signature = ParameterSignatureIndex.signatureOf(subprogram);
+
+		createOrSaveLanguageServerFile("LIBONE", "SIGBODY.NSN", """
+			DEFINE DATA
+			PARAMETER
+			1 #FIRST (A10)
+			END-DEFINE
+			WRITE #FIRST
+			END
+			""");
+
+		assertThat(ParameterSignatureIndex.signatureOf(subprogram)).isSameAs(signature);
+	}
+
+	@Test
+	void createTheSignatureAgainWhenTheDefineDataChanged()
+	{
+		var subprogram = createOrSaveLanguageServerFile("LIBONE", "SIGDD.NSN", """
+			DEFINE DATA
+			PARAMETER
+			1 #FIRST (A10)
+			END-DEFINE
+			END
+			""");
+		ParameterSignatureIndex.signatureOf(subprogram);
+
+		createOrSaveLanguageServerFile("LIBONE", "SIGDD.NSN", """
+			DEFINE DATA
+			PARAMETER
+			1 #RENAMED (A10)
+			END-DEFINE
+			END
+			""");
+
+		assertThat(ParameterSignatureIndex.signatureOf(subprogram).parameters())
+			.extracting(Parameter::name)
+			.containsExactly("#RENAMED");
+	}
+
+	@Test
+	void forgetTheSignatureOfRenamedModules()
+	{
+		var subprogram = createOrSaveLanguageServerFile("LIBONE", "SIGREN.NSN", """
+			DEFINE DATA
+			PARAMETER
+			1 #FIRST (A10)
+			END-DEFINE
+			END
+			""");
+		ParameterSignatureIndex.signatureOf(subprogram);
+		assertThat(ParameterSignatureIndex.isIndexed(subprogram)).isTrue();
+
+		subprogram.getLibrary().rename(subprogram, "SIGREN2");
+
+		assertThat(ParameterSignatureIndex.isIndexed(subprogram)).isFalse();
+	}
+
+	@Override
+	protected LspTestContext getContext()
+	{
+		return testContext;
+	}
+}
@@ -0,0 +1,117 @@
+package org.amshove.natls.project;
+
+import org.amshove.natls.progress.NullProgressMonitor;
+import org.amshove.natls.testlifecycle.LanguageServerTest;
+import org.amshove.natls.testlifecycle.LspProjectName;
+import org.amshove.natls.testlifecycle.LspTest;
+import org.amshove.natls.testlifecycle.LspTestContext;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@LspTest
+class ParseSchedulerShould extends LanguageServerTest
+{
+	private static final int CALLER_COUNT = 30;
+
+	private static LspTestContext testContext;
+	private static LanguageServerFile dataArea;
+	private static LanguageServerFile callee;
+	private static List<LanguageServerFile> callers;
+
+	@BeforeAll
+	static void setupProject(@LspProjectName("emptyproject") LspTestContext context)
+	{
+		testContext = context;
+	}
+
+	@Test
+	void reparseAllCallersInParallel()
+	{
+		createFiles();
+
+		callee.reparseCallers();
+
+		assertThat(callee.getIncomingReferences()).containsExactlyInAnyOrderElementsOf(callers);
+		assertThat(callee.module().callers()).hasSize(CALLER_COUNT);
+		assertThat(callee.allDiagnostics()).noneMatch(d -> d.getMessage().startsWith("Unhandled exception"));
+	}
+
+	@Test
+	void parseDataAreasBeforeModulesAndAllModulesInParallel()
+	{
+		createFiles();
+		var files = new ArrayList<LanguageServerFile>();
+		files.add(callee);
+		files.addAll(callers);
+		files.add(dataArea);
+
+		var parsedFiles = ConcurrentHashMap.<LanguageServerFile> newKeySet();
+		ParseScheduler.parseAll(files, new NullProgressMonitor(), parsedFiles::add);
+
+		assertThat(parsedFiles).containsExactlyInAnyOrderElementsOf(files);
+		assertThat(files).allMatch(f -> f.isParsedTo(ParseLevel.ANALYZED));
+		assertThat(callee.getIncomingReferences()).containsAll(callers);
+		assertThat(dataArea.getIncomingReferences()).containsAll(callers);
+	}
+
+	@Test
+	void continueWithOtherFilesWhenTheActionFailsForOneFile()
+	{
+		createFiles();
+
+		var processedFiles = ConcurrentHashMap.<LanguageServerFile> newKeySet();
+		ParseScheduler.forEachInParallel(callers, new NullProgressMonitor(), f ->
+		{
+			if (f == callers.getFirst())
+			{
+				throw new IllegalStateException("Failing on purpose");
+			}
+			processedFiles.add(f);
+		});
+
+		assertThat(processedFiles).containsExactlyInAnyOrderElementsOf(callers.subList(1, callers.size()));
+	}
+
+	private void createFiles()
+	{
+		dataArea = createOrSaveLanguageServerFile("LIBONE", "SCHEDLDA.NSL", """
+			DEFINE DATA
+			LOCAL
+			1 #VAR (A10)
+			END-DEFINE
+			""");
+
+		callee = createOrSaveLanguageServerFile("LIBONE", "SCHEDCAL.NSN", """
+			DEFINE DATA
+			PARAMETER
+			1 #PARM (A10)
+			END-DEFINE
+			IGNORE
+			END
+			""");
+
+		callers = new ArrayList<>();
+		for (var i = 0; i < CALLER_COUNT; i++)
+		{
+			callers.add(createOrSaveLanguageServerFile("LIBONE", "SCHED%02d.NSN".formatted(i), """
+				DEFINE DATA
+				LOCAL USING SCHEDLDA
+				END-DEFINE
+				CALLNAT 'SCHEDCAL' #VAR
+				END
+				"""));
+		}
+	}
+
+	@Override
+	protected LspTestContext getContext()
+	{
+		return testContext;
+	}
+}
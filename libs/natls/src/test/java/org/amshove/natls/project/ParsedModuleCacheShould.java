@@ -0,0 +1,136 @@
+package org.amshove.natls.project;
+
+import org.amshove.natls.testlifecycle.LanguageServerTest;
+import org.amshove.natls.testlifecycle.LspProjectName;
+import org.amshove.natls.testlifecycle.LspTest;
+import org.amshove.natls.testlifecycle.LspTestContext;
+import org.amshove.natparse.natural.IHasDefineData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@LspTest
+class ParsedModuleCacheShould extends LanguageServerTest
+{
+	private static LspTestContext testContext;
+
+	@AfterEach
+	void resetCacheSize()
+	{
+		ParsedModuleCache.setMaxRetainedSyntaxTrees(ParsedModuleCache.DEFAULT_MAX_RETAINED_SYNTAX_TREES);
+	}
+
+	@Test
+	void evictTheLeastRecentlyUsedSyntaxTreeButKeepTheDefineDataAndCallers(@LspProjectName("emptyproject") LspTestContext context)
+	{
+		testContext = context;
+		ParsedModuleCache.setMaxRetainedSyntaxTrees(1);
+
+		var callee = createCallee();
+		var caller = createCaller();
+
+		assertThat(caller.isParsedTo(ParseLevel.BODY)).isTrue();
+		assertThat(callee.isParsedTo(ParseLevel.BODY)).isFalse();
+		assertThat(callee.isParsedTo(ParseLevel.DEFINE_DATA)).isTrue();
+
+		var evictedModule = callee.module(ParseLevel.DEFINE_DATA);
+		assertThat(evictedModule.syntaxTree()).isNull();
+		assertThat(((IHasDefineData) evictedModule).defineData().findVariable("#PARM")).isNotNull();
+		assertThat(evictedModule.callers()).hasSize(1);
+		assertThat(callee.getIncomingReferences()).contains(caller);
+	}
+
+	@Test
+	void moveCallsOfEvictedModulesIntoTheReferenceCache(@LspProjectName("emptyproject") LspTestContext context)
+	{
+		testContext = context;
+
+		var callee = createCallee();
+		createCaller();
+		assertThat(callee.module().callers()).hasSize(1);
+
+		ParsedModuleCache.setMaxRetainedSyntaxTrees(0);
+
+		assertThat(callee.module(ParseLevel.DEFINE_DATA).callers()).isEmpty();
+		assertThat(ModuleReferenceCache.retrieveCachedPositions(callee)).hasSize(1);
+	}
+
+	@Test
+	void reparseEvictedModulesOnDemand(@LspProjectName("emptyproject") LspTestContext context)
+	{
+		testContext = context;
+
+		var callee = createCallee();
+		ParsedModuleCache.setMaxRetainedSyntaxTrees(0);
+		assertThat(callee.isParsedTo(ParseLevel.BODY)).isFalse();
+
+		ParsedModuleCache.setMaxRetainedSyntaxTrees(1);
+		var module = callee.module();
+		assertThat(module.syntaxTree()).isNotNull();
+		assertThat(callee.isParsedTo(ParseLevel.BODY)).isTrue();
+	}
+
+	@Test
+	void notEvictOpenFiles(@LspProjectName("emptyproject") LspTestContext context)
+	{
+		testContext = context;
+
+		var callee = createCallee();
+		callee.open();
+		ParsedModuleCache.setMaxRetainedSyntaxTrees(0);
+		assertThat(callee.isParsedTo(ParseLevel.BODY)).isTrue();
+
+		callee.close();
+		assertThat(callee.isParsedTo(ParseLevel.BODY)).isFalse();
+	}
+
+	@Test
+	void keepTheDefineDataWhenTokensOfAnEvictedModuleAreRequested(@LspProjectName("emptyproject") LspTestContext context)
+	{
+		testContext = context;
+
+		var callee = createCallee();
+		var caller = createCaller();
+		ParsedModuleCache.setMaxRetainedSyntaxTrees(0);
+		var evictedModule = callee.module(ParseLevel.DEFINE_DATA);
+		var version = callee.version();
+
+		assertThat(callee.tokens()).isNotEmpty();
+
+		assertThat(callee.version()).isEqualTo(version);
+		assertThat(callee.isParsedTo(ParseLevel.DEFINE_DATA)).isTrue();
+		assertThat(callee.module(ParseLevel.DEFINE_DATA)).isSameAs(evictedModule);
+		assertThat(callee.getIncomingReferences()).contains(caller);
+	}
+
+	private LanguageServerFile createCallee()
+	{
+		return createOrSaveLanguageServerFile("LIBONE", "CALLEE.NSN", """
+			DEFINE DATA
+			PARAMETER
+			1 #PARM (A10)
+			END-DEFINE
+			IGNORE
+			END
+			""");
+	}
+
+	private LanguageServerFile createCaller()
+	{
+		return createOrSaveLanguageServerFile("LIBONE", "CALLER.NSN", """
+			DEFINE DATA
+			LOCAL
+			1 #VAR (A10)
+			END-DEFINE
+			CALLNAT 'CALLEE' #VAR
+			END
+			""");
+	}
+
+	@Override
+	protected LspTestContext getContext()
+	{
+		return testContext;
+	}
+}
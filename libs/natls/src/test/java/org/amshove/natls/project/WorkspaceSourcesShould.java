@@ -0,0 +1,53 @@
+package org.amshove.natls.project;
+
+import org.amshove.natls.testlifecycle.EmptyProjectTest;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkspaceSourcesShould extends EmptyProjectTest
+{
+	private static final String SAVED_SOURCE = """
+		DEFINE DATA LOCAL
+		END-DEFINE
+		WRITE 'Saved'
+		END
+		""";
+
+	private static final String UNSAVED_SOURCE = """
+		DEFINE DATA LOCAL
+		END-DEFINE
+		WRITE 'Unsaved'
+		END
+		""";
+
+	@Test
+	void serveTheUnsavedContentOfOpenFiles()
+	{
+		var file = createOrSaveLanguageServerFile("LIBONE", "BUFFERED.NSN", SAVED_SOURCE);
+		file.open();
+		file.changed(UNSAVED_SOURCE);
+
+		assertThat(WorkspaceSources.read(file.getPath())).isEqualTo(UNSAVED_SOURCE);
+	}
+
+	@Test
+	void serveTheContentOnDiskAgainAfterTheFileIsClosed()
+	{
+		var file = createOrSaveLanguageServerFile("LIBONE", "CLOSED.NSN", SAVED_SOURCE);
+		file.open();
+		file.changed(UNSAVED_SOURCE);
+		file.close();
+
+		assertThat(WorkspaceSources.read(file.getPath())).isEqualTo(SAVED_SOURCE);
+	}
+
+	@Test
+	void serveTheContentOnDiskForChangesOfFilesThatAreNotOpen()
+	{
+		var file = createOrSaveLanguageServerFile("LIBONE", "NOTOPEN.NSN", SAVED_SOURCE);
+		file.changed(UNSAVED_SOURCE);
+
+		assertThat(WorkspaceSources.read(file.getPath())).isEqualTo(SAVED_SOURCE);
+	}
+}
@@ -0,0 +1,175 @@
+package org.amshove.natls.semantictokens;
+
+import org.amshove.natls.languageserver.LspUtil;
+import org.amshove.natls.testlifecycle.EmptyProjectTest;
+import org.eclipse.lsp4j.SemanticTokenModifiers;
+import org.eclipse.lsp4j.SemanticTokenTypes;
+import org.eclipse.lsp4j.SemanticTokensDeltaParams;
+import org.eclipse.lsp4j.SemanticTokensParams;
+import org.eclipse.lsp4j.SemanticTokensRangeParams;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SemanticTokensEndpointShould extends EmptyProjectTest
+{
+	private static final String SOURCE = """
+		DEFINE DATA
+		LOCAL
+		1 #VAR (A10)
+		1 #CONST (N2) CONST<5>
+		END-DEFINE
+		#VAR := 'Hello'
+		WRITE #VAR #CONST *DATX
+		END
+		""";
+
+	@Test
+	void classifyVariablesWithTheirScope()
+	{
+		var tokens = fullTokens(createOrSaveFile("LIBONE", "SEMTOK.NSN", SOURCE));
+
+		assertThat(tokens).contains(
+			new DecodedToken(2, 2, 4, SemanticTokenTypes.Variable, List.of(SemanticTokenModifiers.Declaration, "local")),
+			new DecodedToken(5, 0, 4, SemanticTokenTypes.Variable, List.of("local")),
+			new DecodedToken(6, 6, 4, SemanticTokenTypes.Variable, List.of("local"))
+		);
+	}
+
+	@Test
+	void classifyConstantsAsReadonly()
+	{
+		var tokens = fullTokens(createOrSaveFile("LIBONE", "SEMTOK.NSN", SOURCE));
+
+		assertThat(tokens).contains(
+			new DecodedToken(6, 11, 6, SemanticTokenTypes.Variable, List.of(SemanticTokenModifiers.Readonly, "local"))
+		);
+	}
+
+	@Test
+	void classifyKeywordsLiteralsAndSystemVariables()
+	{
+		var tokens = fullTokens(createOrSaveFile("LIBONE", "SEMTOK.NSN", SOURCE));
+
+		assertThat(tokens).contains(
+			new DecodedToken(0, 0, 6, SemanticTokenTypes.Keyword, List.of()),
+			new DecodedToken(5, 8, 7, SemanticTokenTypes.String, List.of()),
+			new DecodedToken(6, 0, 5, SemanticTokenTypes.Keyword, List.of()),
+			new DecodedToken(6, 18, 5, SemanticTokenTypes.Variable, List.of(SemanticTokenModifiers.Readonly, SemanticTokenModifiers.DefaultLibrary))
+		);
+	}
+
+	@Test
+	void classifyParametersAndSubroutines()
+	{
+		var tokens = fullTokens(createOrSaveFile("LIBONE", "SEMSUB.NSN", """
+			DEFINE DATA
+			PARAMETER 1 #P (A10)
+			END-DEFINE
+			PERFORM MY-SUB
+			DEFINE SUBROUTINE MY-SUB
+			IGNORE
+			END-SUBROUTINE
+			END
+			"""));
+
+		assertThat(tokens).contains(
+			new DecodedToken(1, 12, 2, SemanticTokenTypes.Parameter, List.of(SemanticTokenModifiers.Declaration)),
+			new DecodedToken(3, 8, 6, SemanticTokenTypes.Function, List.of()),
+			new DecodedToken(4, 18, 6, SemanticTokenTypes.Function, List.of(SemanticTokenModifiers.Declaration))
+		);
+	}
+
+	@Test
+	void onlyClassifyTokensWithinTheRequestedRange()
+	{
+		var document = createOrSaveFile("LIBONE", "SEMTOK.NSN", SOURCE);
+		var tokens = decode(
+			await(getContext().documentService().semanticTokensRange(new SemanticTokensRangeParams(document, LspUtil.newRange(5, 0, 5, 20)))).getData()
+		);
+
+		assertThat(tokens).isNotEmpty().allMatch(t -> t.line() == 5);
+	}
+
+	@Test
+	void respondWithADeltaToThePreviousResult()
+	{
+		var document = createOrSaveFile("LIBONE", "SEMTOK.NSN", SOURCE);
+		var full = await(getContext().documentService().semanticTokensFull(new SemanticTokensParams(document)));
+
+		createOrSaveFile("LIBONE", "SEMTOK.NSN", SOURCE.replace("WRITE #VAR #CONST *DATX", "WRITE #VAR"));
+		var delta = await(getContext().documentService().semanticTokensFullDelta(new SemanticTokensDeltaParams(document, full.getResultId())));
+
+		assertThat(delta.isRight()).isTrue();
+		assertThat(delta.getRight().getResultId()).isNotEqualTo(full.getResultId());
+		var edits = delta.getRight().getEdits();
+		assertThat(edits).hasSize(1);
+
+		var patched = new ArrayList<>(full.getData());
+		var edit = edits.get(0);
+		patched.subList(edit.getStart(), edit.getStart() + edit.getDeleteCount()).clear();
+		patched.addAll(edit.getStart(), edit.getData());
+		var current = await(getContext().documentService().semanticTokensFull(new SemanticTokensParams(document)));
+		assertThat(patched).isEqualTo(new ArrayList<>(current.getData()));
+	}
+
+	@Test
+	void respondWithAllTokensIfThePreviousResultIsUnknown()
+	{
+		var document = createOrSaveFile("LIBONE", "SEMTOK.NSN", SOURCE);
+
+		var delta = await(getContext().documentService().semanticTokensFullDelta(new SemanticTokensDeltaParams(document, "unknown")));
+
+		assertThat(delta.isLeft()).isTrue();
+		assertThat(delta.getLeft().getData()).isNotEmpty();
+	}
+
+	private List<DecodedToken> fullTokens(TextDocumentIdentifier document)
+	{
+		return decode(await(getContext().documentService().semanticTokensFull(new SemanticTokensParams(document))).getData());
+	}
+
+	private static List<DecodedToken> decode(List<Integer> data)
+	{
+		var tokens = new ArrayList<DecodedToken>();
+		var line = 0;
+		var start = 0;
+		for (var i = 0; i < data.size(); i += 5)
+		{
+			var deltaLine = data.get(i);
+			line += deltaLine;
+			start = deltaLine == 0 ? start + data.get(i + 1) : data.get(i + 1);
+			var modifiers = new ArrayList<String>();
+			for (var bit = 0; bit < SemanticTokensProvider.LEGEND.getTokenModifiers().size(); bit++)
+			{
+				if ((data.get(i + 4) & (1 << bit)) != 0)
+				{
+					modifiers.add(SemanticTokensProvider.LEGEND.getTokenModifiers().get(bit));
+				}
+			}
+			tokens.add(new DecodedToken(line, start, data.get(i + 2), SemanticTokensProvider.LEGEND.getTokenTypes().get(data.get(i + 3)), modifiers));
+		}
+		return tokens;
+	}
+
+	private static <T> T await(CompletableFuture<T> future)
+	{
+		try
+		{
+			return future.get(5, TimeUnit.SECONDS);
+		}
+		catch (Exception e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
+	private record DecodedToken(int line, int start, int length, String type, List<String> modifiers)
+	{}
+}
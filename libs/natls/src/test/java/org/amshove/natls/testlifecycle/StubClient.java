@@ -10,6 +10,7 @@ public class StubClient implements LanguageClient
 {
 	private final List<ShownMessage> shownMessages = new ArrayList<>();
 	private final Map<String, List<Diagnostic>> publishedDiagnosticsPerUri = new HashMap<>();
+	private final List<ProgressParams> progressNotifications = new ArrayList<>();
 	private int refreshCodeLensesCalls = 0;
 
 	@Override
@@ -87,7 +88,7 @@ public class StubClient implements LanguageClient
 	@Override
 	public void notifyProgress(ProgressParams params)
 	{
-		LanguageClient.super.notifyProgress(params);
+		progressNotifications.add(params);
 	}
 
 	@Override
@@ -122,6 +123,11 @@ public class StubClient implements LanguageClient
 		return refreshCodeLensesCalls;
 	}
 
+	public List<ProgressParams> getProgressNotifications()
+	{
+		return progressNotifications;
+	}
+
 	public List<Diagnostic> getPublishedDiagnostics(TextDocumentIdentifier document)
 	{
 		return publishedDiagnosticsPerUri.get(document.getUri());
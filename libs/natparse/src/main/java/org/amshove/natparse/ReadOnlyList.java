@@ -39,6 +39,18 @@ public class ReadOnlyList<T> implements Iterable<T>
 		return new ReadOnlyList<>(collection, true);
 	}
 
+	/**
+	 * Creates a ReadOnlyList containing the elements of the given collection in iteration order.
+	 */
+	public static <T> ReadOnlyList<T> copyOf(Collection<? extends T> collection)
+	{
+		if (collection == null || collection.isEmpty())
+		{
+			return empty();
+		}
+		return new ReadOnlyList<>(new ArrayList<>(collection), false);
+	}
+
 	@SuppressWarnings("unchecked")
 	public static <T> ReadOnlyList<T> empty()
 	{
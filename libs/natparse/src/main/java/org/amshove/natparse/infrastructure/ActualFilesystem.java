@@ -9,7 +9,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 
-public class ActualFilesystem implements IFilesystem
+public class ActualFilesystem implements IFilesystem, ISourceProvider
 {
 	private static final String[] PROJECT_FILE_NAMES = new String[]
 	{
@@ -28,6 +28,12 @@ public class ActualFilesystem implements IFilesystem
 		}
 	}
 
+	@Override
+	public String readSource(Path path)
+	{
+		return readFile(path);
+	}
+
 	@Override
 	public boolean exists(Path path)
 	{
@@ -52,8 +58,8 @@ public class ActualFilesystem implements IFilesystem
 	{
 		try
 		{
-			return Files.walk(startPath, Integer.MAX_VALUE, FileVisitOption.FOLLOW_LINKS)
-				.filter(p -> p.toFile().isFile());
+			// Files.find hands out the attributes read while walking, which saves a stat per file
+			return Files.find(startPath, Integer.MAX_VALUE, (p, attributes) -> attributes.isRegularFile(), FileVisitOption.FOLLOW_LINKS);
 		}
 		catch (IOException e)
 		{
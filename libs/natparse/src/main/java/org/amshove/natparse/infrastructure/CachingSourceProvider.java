@@ -0,0 +1,128 @@
+package org.amshove.natparse.infrastructure;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+
+/**
+ * Reads sources from the file system and keeps the decoded content of recently read files.<br/>
+ * A cached entry is only served while the modification time and the size of the file are unchanged. Files modified
+ * shortly before they have been read are never cached, because a write within the timestamp granularity of the file
+ * system wouldn't be noticed.<br/>
+ * The cache is bounded by the total amount of cached characters and evicts the least recently read files first.
+ */
+public class CachingSourceProvider implements ISourceProvider
+{
+	public static final long DEFAULT_MAX_CACHED_CHARACTERS = 16L * 1024 * 1024;
+	private static final long UNRELIABLE_MODIFICATION_WINDOW_MILLIS = 2000;
+
+	private final LinkedHashMap<Path, CachedSource> cachedSources = new LinkedHashMap<>(16, 0.75f, true);
+	private final long maxCachedCharacters;
+	private long cachedCharacters;
+
+	public CachingSourceProvider()
+	{
+		this(DEFAULT_MAX_CACHED_CHARACTERS);
+	}
+
+	public CachingSourceProvider(long maxCachedCharacters)
+	{
+		this.maxCachedCharacters = maxCachedCharacters;
+	}
+
+	@Override
+	public String readSource(Path path)
+	{
+		try
+		{
+			var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+			var cached = cachedSource(path);
+			if (cached != null && cached.isUpToDate(attributes))
+			{
+				return cached.content();
+			}
+
+			var readAt = Instant.now();
+			var content = Files.readString(path);
+			if (readAt.toEpochMilli() - attributes.lastModifiedTime().toMillis() > UNRELIABLE_MODIFICATION_WINDOW_MILLIS)
+			{
+				cache(path, new CachedSource(attributes.lastModifiedTime(), attributes.size(), content));
+			}
+			else
+			{
+				invalidate(path);
+			}
+
+			return content;
+		}
+		catch (IOException e)
+		{
+			invalidate(path);
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Drops the cached content of the given file, e.g. because it has been deleted.
+	 */
+	public synchronized void invalidate(Path path)
+	{
+		var removed = cachedSources.remove(path);
+		if (removed != null)
+		{
+			cachedCharacters -= removed.content().length();
+		}
+	}
+
+	public synchronized void clear()
+	{
+		cachedSources.clear();
+		cachedCharacters = 0;
+	}
+
+	public synchronized int cachedFiles()
+	{
+		return cachedSources.size();
+	}
+
+	private synchronized CachedSource cachedSource(Path path)
+	{
+		return cachedSources.get(path);
+	}
+
+	private synchronized void cache(Path path, CachedSource source)
+	{
+		if (source.content().length() > maxCachedCharacters)
+		{
+			invalidate(path);
+			return;
+		}
+
+		var previous = cachedSources.put(path, source);
+		if (previous != null)
+		{
+			cachedCharacters -= previous.content().length();
+		}
+		cachedCharacters += source.content().length();
+
+		var iterator = cachedSources.values().iterator();
+		while (cachedCharacters > maxCachedCharacters && iterator.hasNext())
+		{
+			cachedCharacters -= iterator.next().content().length();
+			iterator.remove();
+		}
+	}
+
+	private record CachedSource(FileTime lastModified, long size, String content)
+	{
+		boolean isUpToDate(BasicFileAttributes attributes)
+		{
+			return size == attributes.size() && lastModified.equals(attributes.lastModifiedTime());
+		}
+	}
+}
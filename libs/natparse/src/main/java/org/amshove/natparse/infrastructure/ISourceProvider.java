@@ -0,0 +1,18 @@
+package org.amshove.natparse.infrastructure;
+
+import java.nio.file.Path;
+
+/**
+ * Provides the source code of Natural files.<br/>
+ * Implementations may cache the content or serve content that differs from the file system, e.g. unsaved editor
+ * buffers.
+ */
+public interface ISourceProvider
+{
+	/**
+	 * Returns the source of the file at the given path.
+	 *
+	 * @throws java.io.UncheckedIOException if the file can't be read
+	 */
+	String readSource(Path path);
+}
@@ -0,0 +1,37 @@
+package org.amshove.natparse.infrastructure;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers every source read through it, e.g. to know which files an analysis result depends on.<br/>
+ * Not thread safe, intended to be used for the analysis of a single module.
+ */
+public class RecordingSourceProvider implements ISourceProvider
+{
+	private final ISourceProvider delegate;
+	private final Map<Path, String> readSources = new LinkedHashMap<>();
+
+	public RecordingSourceProvider(ISourceProvider delegate)
+	{
+		this.delegate = delegate;
+	}
+
+	@Override
+	public String readSource(Path path)
+	{
+		var source = delegate.readSource(path);
+		readSources.put(path, source);
+		return source;
+	}
+
+	/**
+	 * All sources read so far by their path, in the order they've been read first.
+	 */
+	public Map<Path, String> readSources()
+	{
+		return Collections.unmodifiableMap(readSources);
+	}
+}
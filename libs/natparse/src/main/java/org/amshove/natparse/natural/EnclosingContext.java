@@ -0,0 +1,75 @@
+package org.amshove.natparse.natural;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The closest ancestors of a node that are commonly looked up.<br/>
+ * Every component is null if the node has no such ancestor.
+ *
+ * @param statement the closest enclosing statement
+ * @param adabasAccess the closest enclosing Adabas access statement, e.g. a FIND or READ loop
+ * @param subroutine the closest enclosing subroutine
+ * @param redefinition the closest enclosing REDEFINE
+ */
+public record EnclosingContext(
+	IStatementNode statement,
+	IAdabasAccessStatementNode adabasAccess,
+	ISubroutineNode subroutine,
+	IRedefinitionNode redefinition
+)
+{
+
+	public static final EnclosingContext NONE = new EnclosingContext(null, null, null, null);
+
+	/**
+	 * Computes the context of a node by walking up its parents. Prefer {@link ISyntaxNode#enclosingContext()}, which
+	 * may be cached.
+	 */
+	public static EnclosingContext of(ISyntaxNode node)
+	{
+		var parent = node.parent();
+		return parent == null ? NONE : of(parent).enteredFrom(parent);
+	}
+
+	/**
+	 * Returns the context of the children of {@code parent}, which has this context.
+	 */
+	public EnclosingContext enteredFrom(ISyntaxNode parent)
+	{
+		if (!(parent instanceof IStatementNode
+			|| parent instanceof IAdabasAccessStatementNode
+			|| parent instanceof ISubroutineNode
+			|| parent instanceof IRedefinitionNode))
+		{
+			return this; // perf: most nodes share the context of their parent
+		}
+
+		return new EnclosingContext(
+			parent instanceof IStatementNode enclosingStatement ? enclosingStatement : statement,
+			parent instanceof IAdabasAccessStatementNode enclosingAccess ? enclosingAccess : adabasAccess,
+			parent instanceof ISubroutineNode enclosingSubroutine ? enclosingSubroutine : subroutine,
+			parent instanceof IRedefinitionNode enclosingRedefinition ? enclosingRedefinition : redefinition
+		);
+	}
+
+	/**
+	 * Returns all enclosing Adabas access statements, starting with the closest one.
+	 */
+	public List<IAdabasAccessStatementNode> adabasAccesses()
+	{
+		if (adabasAccess == null)
+		{
+			return List.of();
+		}
+
+		var accesses = new ArrayList<IAdabasAccessStatementNode>();
+		var access = adabasAccess;
+		while (access != null)
+		{
+			accesses.add(access);
+			access = access instanceof ISyntaxNode accessNode ? accessNode.enclosingContext().adabasAccess() : null;
+		}
+		return accesses;
+	}
+}
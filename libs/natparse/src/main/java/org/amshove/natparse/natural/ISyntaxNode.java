@@ -8,6 +8,15 @@ public interface ISyntaxNode extends ISyntaxTree
 {
 	ISyntaxNode parent();
 
+	/**
+	 * Returns the closest enclosing statement, Adabas access, subroutine and REDEFINE of this node.<br/>
+	 * Only query this once the tree is fully built.
+	 */
+	default EnclosingContext enclosingContext()
+	{
+		return EnclosingContext.of(this);
+	}
+
 	IPosition position();
 
 	IPosition diagnosticPosition();
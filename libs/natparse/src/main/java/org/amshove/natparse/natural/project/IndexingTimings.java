@@ -0,0 +1,31 @@
+package org.amshove.natparse.natural.project;
+
+import java.time.Duration;
+
+/**
+ * Wall clock time spent in the phases of indexing a project.
+ *
+ * @param listing time spent walking the library directories
+ * @param nameScanning time spent determining the referable names of the found files
+ * @param registering time spent adding the files to their libraries
+ * @param indexedFiles the number of Natural files that have been indexed
+ */
+public record IndexingTimings(Duration listing, Duration nameScanning, Duration registering, int indexedFiles)
+{
+	public Duration total()
+	{
+		return listing.plus(nameScanning).plus(registering);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "Indexed %,d files in %d ms (listing: %d ms, name scanning: %d ms, registering: %d ms)".formatted(
+			indexedFiles,
+			total().toMillis(),
+			listing.toMillis(),
+			nameScanning.toMillis(),
+			registering.toMillis()
+		);
+	}
+}
@@ -0,0 +1,182 @@
+package org.amshove.natparse.natural.project;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.Set;
+
+/**
+ * Finds the name of external subroutines and functions without lexing the whole source.<br/>
+ * The scanner walks forward over words, skipping comments and string literals, and stops at the first declaration.
+ */
+final class ModuleNameScanner
+{
+	private static final Set<String> OTHER_DEFINE_STATEMENTS = Set.of("DATA", "PRINTER", "WINDOW", "WORK", "PROTOTYPE");
+
+	private final String source;
+	private int position;
+	private boolean atLineStart = true;
+
+	private ModuleNameScanner(String source)
+	{
+		this.source = source;
+	}
+
+	/**
+	 * Returns the name of the first {@code DEFINE [SUBROUTINE] name} that isn't another DEFINE statement.
+	 */
+	@Nullable
+	static String findSubroutineName(String source)
+	{
+		var scanner = new ModuleNameScanner(source);
+		String word;
+		while ((word = scanner.nextWord()) != null)
+		{
+			if (word.equalsIgnoreCase("SUBROUTINE"))
+			{
+				return scanner.nextName();
+			}
+
+			if (word.equalsIgnoreCase("DEFINE"))
+			{
+				var next = scanner.nextWord();
+				if (next == null)
+				{
+					return null;
+				}
+
+				if (next.equalsIgnoreCase("SUBROUTINE"))
+				{
+					return scanner.nextName();
+				}
+
+				if (!OTHER_DEFINE_STATEMENTS.contains(next.toUpperCase()))
+				{
+					return next.toUpperCase();
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the name following the first {@code FUNCTION} keyword.
+	 */
+	@Nullable
+	static String findFunctionName(String source)
+	{
+		var scanner = new ModuleNameScanner(source);
+		String word;
+		while ((word = scanner.nextWord()) != null)
+		{
+			if (word.equalsIgnoreCase("FUNCTION"))
+			{
+				return scanner.nextName();
+			}
+		}
+
+		return null;
+	}
+
+	@Nullable
+	private String nextName()
+	{
+		var name = nextWord();
+		return name != null ? name.toUpperCase() : null;
+	}
+
+	@Nullable
+	private String nextWord()
+	{
+		while (position < source.length())
+		{
+			var character = source.charAt(position);
+			if (character == '\n' || character == '\r')
+			{
+				atLineStart = true;
+				position++;
+				continue;
+			}
+
+			var isFirstInLine = atLineStart;
+			atLineStart = false;
+
+			if (isFirstInLine && character == '*' && isCommentAfterAsterisk(position + 1))
+			{
+				skipToLineEnd();
+				continue;
+			}
+
+			if (character == '/' && peek(position + 1) == '*')
+			{
+				skipToLineEnd();
+				continue;
+			}
+
+			if (character == '\'' || character == '"')
+			{
+				skipString(character);
+				continue;
+			}
+
+			if (isIdentifierCharacter(character))
+			{
+				var start = position;
+				while (position < source.length() && isIdentifierCharacter(source.charAt(position)))
+				{
+					if (source.charAt(position) == '/' && peek(position + 1) == '*')
+					{
+						break;
+					}
+					position++;
+				}
+				return source.substring(start, position);
+			}
+
+			position++;
+		}
+
+		return null;
+	}
+
+	private boolean isCommentAfterAsterisk(int index)
+	{
+		var lookahead = peek(index);
+		return lookahead == ' ' || lookahead == '*' || lookahead == '\t' || lookahead == '\n' || lookahead == '\r'
+			|| lookahead == '/' || lookahead == 0;
+	}
+
+	private void skipToLineEnd()
+	{
+		while (position < source.length() && source.charAt(position) != '\n' && source.charAt(position) != '\r')
+		{
+			position++;
+		}
+	}
+
+	private void skipString(char quote)
+	{
+		position++;
+		while (position < source.length() && source.charAt(position) != quote && source.charAt(position) != '\n')
+		{
+			position++;
+		}
+
+		if (position < source.length() && source.charAt(position) == quote)
+		{
+			position++;
+		}
+	}
+
+	private char peek(int index)
+	{
+		return index < source.length() ? source.charAt(index) : 0;
+	}
+
+	private static boolean isIdentifierCharacter(char character)
+	{
+		return Character.isAlphabetic(character) || Character.isDigit(character) || character == '-' || character == '/'
+			|| character == '@' || character == '$' || character == '&' || character == '#' || character == '.'
+			|| character == '_';
+	}
+}
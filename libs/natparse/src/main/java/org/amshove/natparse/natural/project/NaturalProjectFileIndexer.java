@@ -2,10 +2,9 @@ package org.amshove.natparse.natural.project;
 
 import org.amshove.natparse.infrastructure.ActualFilesystem;
 import org.amshove.natparse.infrastructure.IFilesystem;
-import org.amshove.natparse.lexing.Lexer;
-import org.amshove.natparse.lexing.SyntaxKind;
 
 import java.nio.file.Path;
+import java.time.Duration;
 
 public class NaturalProjectFileIndexer
 {
@@ -21,16 +20,44 @@ public class NaturalProjectFileIndexer
 		this.filesystem = filesystem;
 	}
 
-	public void indexProject(NaturalProject project)
+	/**
+	 * Adds all Natural files of the project to their libraries.<br/>
+	 * Libraries are walked concurrently and the names of the found files are determined in parallel. Files are added to
+	 * their library in the order they've been found.
+	 */
+	public IndexingTimings indexProject(NaturalProject project)
 	{
-		for (var library : project.getLibraries())
-		{
-			var files = filesystem.streamFilesRecursively(library.getSourcePath())
-				.filter(NaturalFileType::isNaturalFile)
-				.map(this::toNaturalFile);
+		var libraries = project.getLibraries();
+
+		var listingStart = System.nanoTime();
+		var pathsPerLibrary = libraries.parallelStream()
+			.map(library -> filesystem.streamFilesRecursively(library.getSourcePath()).filter(NaturalFileType::isNaturalFile).toList())
+			.toList();
+
+		var scanningStart = System.nanoTime();
+		var filesPerLibrary = pathsPerLibrary.parallelStream()
+			.map(paths -> paths.parallelStream().map(this::toNaturalFile).toList())
+			.toList();
 
-			files.forEach(library::addFile);
+		var registeringStart = System.nanoTime();
+		var indexedFiles = 0;
+		for (var i = 0; i < libraries.size(); i++)
+		{
+			var library = libraries.get(i);
+			for (var file : filesPerLibrary.get(i))
+			{
+				library.addFile(file);
+				indexedFiles++;
+			}
 		}
+		var end = System.nanoTime();
+
+		return new IndexingTimings(
+			Duration.ofNanos(scanningStart - listingStart),
+			Duration.ofNanos(registeringStart - scanningStart),
+			Duration.ofNanos(end - registeringStart),
+			indexedFiles
+		);
 	}
 
 	public NaturalFile toNaturalFile(Path path)
@@ -59,30 +86,23 @@ public class NaturalProjectFileIndexer
 
 	private String extractSubroutineName(Path path)
 	{
-		var lexemes = new Lexer().lex(filesystem.readFile(path), path);
-		// Advance directly past the subroutine name, if possible
-		if (!lexemes.advanceAfterNextIfFound(SyntaxKind.SUBROUTINE))
+		var name = ModuleNameScanner.findSubroutineName(filesystem.readFile(path));
+		if (name == null)
 		{
-			// else advance to END-DEFINE if it exists
-			lexemes.advanceAfterNextIfFound(SyntaxKind.END_DEFINE);
-			// After this, the first DEFINE token MUST be from the DEFINE [SUBROUTINE]
-			if (!lexemes.advanceAfterNext(SyntaxKind.DEFINE))
-			{
-				throw new RuntimeException("Could not find DEFINE SUBSROUTINE");
-			}
+			throw new RuntimeException("Could not find DEFINE SUBSROUTINE");
 		}
 
-		return lexemes.peek().symbolName();
+		return name;
 	}
 
 	private String extractFunctionName(Path path)
 	{
-		var lexemes = new Lexer().lex(filesystem.readFile(path), path);
-		if (!lexemes.advanceAfterNextIfFound(SyntaxKind.FUNCTION))
+		var name = ModuleNameScanner.findFunctionName(filesystem.readFile(path));
+		if (name == null)
 		{
 			throw new RuntimeException("Could not find DEFINE FUNCTION");
 		}
 
-		return lexemes.peek().symbolName();
+		return name;
 	}
 }
@@ -2,6 +2,7 @@ package org.amshove.natparse.parsing;
 
 import org.amshove.natparse.IPosition;
 import org.amshove.natparse.ReadOnlyList;
+import org.amshove.natparse.natural.EnclosingContext;
 import org.amshove.natparse.natural.IStatementVisitor;
 import org.amshove.natparse.natural.ISyntaxNode;
 import org.amshove.natparse.natural.ISyntaxNodeVisitor;
@@ -16,10 +17,12 @@ class BaseSyntaxNode implements ISyntaxNode
 {
 	private List<BaseSyntaxNode> nodes = Collections.emptyList();
 	private ISyntaxNode parent;
+	private EnclosingContext enclosingContext; // Gets computed on first demand
 
 	public void setParent(ISyntaxNode parent)
 	{
 		this.parent = parent;
+		enclosingContext = null;
 	}
 
 	void removeNode(BaseSyntaxNode node)
@@ -32,6 +35,18 @@ class BaseSyntaxNode implements ISyntaxNode
 		return parent;
 	}
 
+	@Override
+	public EnclosingContext enclosingContext()
+	{
+		if (enclosingContext == null)
+		{
+			enclosingContext = parent == null
+				? EnclosingContext.NONE
+				: parent.enclosingContext().enteredFrom(parent);
+		}
+		return enclosingContext;
+	}
+
 	private ISyntaxNode getStart()
 	{
 		return nodes.get(0);
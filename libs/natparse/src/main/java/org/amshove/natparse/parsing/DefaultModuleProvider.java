@@ -1,5 +1,6 @@
 package org.amshove.natparse.parsing;
 
+import org.amshove.natparse.infrastructure.ISourceProvider;
 import org.amshove.natparse.lexing.Lexer;
 import org.amshove.natparse.natural.*;
 import org.amshove.natparse.natural.ddm.IDataDefinitionModule;
@@ -7,15 +8,21 @@ import org.amshove.natparse.natural.project.NaturalFile;
 import org.amshove.natparse.natural.project.NaturalFileType;
 import org.amshove.natparse.parsing.ddm.DdmParser;
 
-import java.nio.file.Files;
-
 class DefaultModuleProvider implements IModuleProvider
 {
 	private final NaturalFile caller;
+	private final ISourceProvider sourceProvider;
 
-	DefaultModuleProvider(NaturalFile caller)
+	DefaultModuleProvider(NaturalFile caller, ISourceProvider sourceProvider)
 	{
 		this.caller = caller;
+		this.sourceProvider = sourceProvider;
+	}
+
+	@Override
+	public ISourceProvider sourceProvider()
+	{
+		return sourceProvider;
 	}
 
 	@Override
@@ -28,7 +35,7 @@ class DefaultModuleProvider implements IModuleProvider
 			{
 				return null;
 			}
-			return new DdmParser().parseDdm(Files.readString(calledFile.getPath()));
+			return new DdmParser().parseDdm(sourceProvider.readSource(calledFile.getPath()));
 		}
 		catch (Exception e)
 		{
@@ -59,7 +66,7 @@ class DefaultModuleProvider implements IModuleProvider
 		{
 			// Parsing only the DEFINE DATA should be enough for everything except COPYCODEs
 			// If we'd parse more, we would have to handle cyclomatic dependencies
-			var source = Files.readString(foundFile.getPath());
+			var source = sourceProvider.readSource(foundFile.getPath());
 			var tokens = new Lexer().lex(source, foundFile.getPath());
 			var result = new DefineDataParser(this).parse(tokens);
 			var builder = new NaturalModuleBuilder(foundFile);
@@ -1,6 +1,5 @@
 package org.amshove.natparse.parsing;
 
-import org.amshove.natparse.NodeUtil;
 import org.amshove.natparse.ReadOnlyList;
 import org.amshove.natparse.natural.*;
 import org.amshove.natparse.natural.ddm.IDdmField;
@@ -8,7 +7,9 @@ import org.jspecify.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -18,6 +19,13 @@ class DefineDataNode extends BaseSyntaxNode implements IDefineData
 	private final List<IVariableNode> variables = new ArrayList<>();
 	private ReadOnlyList<ITypedVariableNode> cachedEffectiveParameter;
 
+	private record SymbolTable(Map<String, List<IVariableNode>> variablesBySymbolName, List<IViewNode> views)
+	{}
+
+	// Built on first lookup and dropped whenever variables get added. Published as a whole, because requests read
+	// the tree of published modules while the linter looks up variables in it.
+	private volatile SymbolTable symbolTable;
+
 	@Override
 	public ReadOnlyList<IUsingNode> localUsings()
 	{
@@ -61,35 +69,25 @@ class DefineDataNode extends BaseSyntaxNode implements IDefineData
 	@Override
 	public IVariableNode findVariable(String symbolName)
 	{
-		for (var variable : variables)
-		{
-			if (variable.name().equals(symbolName) || variable.qualifiedName().equals(symbolName))
-			{
-				return variable;
-			}
-		}
-
-		return null;
+		var candidates = symbolTable().variablesBySymbolName().get(symbolName);
+		return candidates != null ? candidates.get(0) : null;
 	}
 
 	@Nullable
 	@Override
 	public IDdmField findDdmField(String symbolName)
 	{
-		for (var variable : variables)
+		for (var viewNode : symbolTable().views())
 		{
-			if (variable instanceof IViewNode viewNode)
+			if (viewNode.ddm() == null)
 			{
-				if (viewNode.ddm() == null)
-				{
-					return null;
-				}
-
-				var field = viewNode.ddm().findField(symbolName);
-				if (field != null)
-				{
-					return field;
-				}
+				return null;
+			}
+
+			var field = viewNode.ddm().findField(symbolName);
+			if (field != null)
+			{
+				return field;
 			}
 		}
 
@@ -141,6 +139,7 @@ class DefineDataNode extends BaseSyntaxNode implements IDefineData
 	@Override
 	protected void nodeAdded(BaseSyntaxNode node)
 	{
+		symbolTable = null;
 		if (node instanceof IUsingNode usingNode)
 		{
 			usings.add(usingNode);
@@ -163,6 +162,7 @@ class DefineDataNode extends BaseSyntaxNode implements IDefineData
 	 */
 	void addVariable(IVariableNode variable)
 	{
+		symbolTable = null;
 		variables.add(variable);
 	}
 
@@ -201,22 +201,60 @@ class DefineDataNode extends BaseSyntaxNode implements IDefineData
 
 	List<IVariableNode> findVariablesWithName(String symbolName)
 	{
-		var foundVariables = new ArrayList<IVariableNode>();
+		var candidates = symbolTable().variablesBySymbolName().get(symbolName);
+		if (candidates == null)
+		{
+			return List.of();
+		}
+
+		var foundVariables = new ArrayList<IVariableNode>(candidates.size());
+		for (var variable : candidates)
+		{
+			if (!(variable instanceof IRedefinitionNode))
+			{
+				foundVariables.add(variable);
+			}
+		}
+
+		return foundVariables;
+	}
+
+	/**
+	 * Maps the name and qualified name of every variable to all variables declared with it, in declaration order.
+	 */
+	private SymbolTable symbolTable()
+	{
+		var builtSymbolTable = symbolTable;
+		if (builtSymbolTable != null)
+		{
+			return builtSymbolTable;
+		}
+
+		var variablesBySymbolName = new HashMap<String, List<IVariableNode>>(variables.size() * 2);
+		var foundViews = new ArrayList<IViewNode>();
 		for (var variable : variables)
 		{
+			if (variable instanceof IViewNode viewNode)
+			{
+				foundViews.add(viewNode);
+			}
+
 			if (variable.name() == null)
 			{
 				continue; // There was a parse error with that variable name
 			}
 
-			if ((variable.name().equals(symbolName) || variable.qualifiedName().equals(symbolName))
-				&& !(variable instanceof IRedefinitionNode))
+			variablesBySymbolName.computeIfAbsent(variable.name(), n -> new ArrayList<>(1)).add(variable);
+			var qualifiedName = variable.qualifiedName();
+			if (!qualifiedName.equals(variable.name()))
 			{
-				foundVariables.add(variable);
+				variablesBySymbolName.computeIfAbsent(qualifiedName, n -> new ArrayList<>(1)).add(variable);
 			}
 		}
 
-		return foundVariables;
+		builtSymbolTable = new SymbolTable(variablesBySymbolName, foundViews);
+		symbolTable = builtSymbolTable;
+		return builtSymbolTable;
 	}
 
 	@Override
@@ -237,7 +275,7 @@ class DefineDataNode extends BaseSyntaxNode implements IDefineData
 		var parametersInOrder = new ArrayList<ITypedVariableNode>();
 		for (var parameter : unexpandedParameter)
 		{
-			var isRedefineChild = NodeUtil.findFirstParentOfType(parameter, IRedefinitionNode.class) != null;
+			var isRedefineChild = parameter.enclosingContext().redefinition() != null;
 			if (parameter instanceof ITypedVariableNode typedVar && !isRedefineChild)
 			{
 				parametersInOrder.add(typedVar);
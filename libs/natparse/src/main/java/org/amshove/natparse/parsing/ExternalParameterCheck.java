@@ -1,6 +1,5 @@
 package org.amshove.natparse.parsing;
 
-import org.amshove.natparse.NodeUtil;
 import org.amshove.natparse.ReadOnlyList;
 import org.amshove.natparse.lexing.SyntaxKind;
 import org.amshove.natparse.natural.*;
@@ -357,10 +356,7 @@ public class ExternalParameterCheck
 		for (var variable : group.flattenVariables())
 		{
 			// REDEFINEs and their member are not parameter themselves
-			if (variable instanceof IRedefinitionNode || NodeUtil.findFirstParentOfType(
-				variable,
-				IRedefinitionNode.class
-			) != null)
+			if (variable instanceof IRedefinitionNode || variable.enclosingContext().redefinition() != null)
 			{
 				continue;
 			}
@@ -1,5 +1,6 @@
 package org.amshove.natparse.parsing;
 
+import org.amshove.natparse.infrastructure.ISourceProvider;
 import org.amshove.natparse.natural.INaturalModule;
 import org.amshove.natparse.natural.ddm.IDataDefinitionModule;
 import org.amshove.natparse.natural.project.NaturalFileType;
@@ -10,4 +11,10 @@ public interface IModuleProvider
 	INaturalModule findNaturalModule(String referableName, @Nullable NaturalFileType requestedType);
 
 	IDataDefinitionModule findDdm(String referableName);
+
+	/**
+	 * The provider used to load the source of modules that are sideloaded while parsing, e.g. INCLUDEd copycodes.
+	 * Implementations should hand out the same provider on every call, so that its cache is shared.
+	 */
+	ISourceProvider sourceProvider();
 }
@@ -11,6 +11,7 @@ import org.amshove.natparse.natural.project.NaturalProgrammingMode;
 import org.jspecify.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -18,8 +19,10 @@ class NaturalModule
 {
 	protected final NaturalFile file;
 	private IDefineData defineData;
+	private ReadOnlyList<IDiagnostic> defineDataDiagnostics = ReadOnlyList.empty();
 	private final List<IDiagnostic> diagnostics = new ArrayList<>();
-	private final List<IModuleReferencingNode> callers = new ArrayList<>();
+	// Synchronized, because callers can get parsed in parallel
+	private List<IModuleReferencingNode> callers = Collections.synchronizedList(new ArrayList<>());
 	private final List<IReferencableNode> referencableNodes = new ArrayList<>();
 	private IStatementListNode body;
 	private ISyntaxTree tree;
@@ -84,6 +87,19 @@ class NaturalModule
 		this.defineData = defineData;
 	}
 
+	/**
+	 * The diagnostics reported while parsing the DEFINE DATA, kept so that the DEFINE DATA can be reused on reparse.
+	 */
+	ReadOnlyList<IDiagnostic> defineDataDiagnostics()
+	{
+		return defineDataDiagnostics;
+	}
+
+	void setDefineDataDiagnostics(ReadOnlyList<IDiagnostic> diagnostics)
+	{
+		defineDataDiagnostics = diagnostics;
+	}
+
 	void addDiagnostics(List<IDiagnostic> diagnostics)
 	{
 		this.diagnostics.addAll(diagnostics);
@@ -104,6 +120,11 @@ class NaturalModule
 		callers.remove(callerNode);
 	}
 
+	void shareCallersWith(NaturalModule other)
+	{
+		callers = other.callers;
+	}
+
 	public void addCaller(IModuleReferencingNode caller)
 	{
 		callers.add(caller);
@@ -18,12 +18,14 @@ public class NaturalModuleBuilder
 	private final NaturalFile correspondingFile;
 	private ReadOnlyList<SyntaxToken> comments;
 	private IDefineData defineData;
+	private ReadOnlyList<IDiagnostic> defineDataDiagnostics = ReadOnlyList.empty();
 	private ReadOnlyList<SyntaxToken> tokens;
 	private NaturalHeader sourceHeader;
 	private SyntaxToken functionName;
 	private DataType returnType;
 	private IStatementListNode body;
 	private ISyntaxTree syntaxTree;
+	private INaturalModule callersOf;
 
 	public NaturalModuleBuilder(NaturalFile file)
 	{
@@ -36,6 +38,7 @@ public class NaturalModuleBuilder
 
 		theModule.setHeader(sourceHeader);
 		theModule.setDefineData(defineData);
+		theModule.setDefineDataDiagnostics(defineDataDiagnostics);
 		theModule.setComments(comments);
 		theModule.setTokens(tokens);
 		theModule.setBody(body);
@@ -44,6 +47,10 @@ public class NaturalModuleBuilder
 		theModule.setFunctionName(functionName);
 		theModule.setReturnType(returnType);
 		theModule.addDiagnostics(diagnostics);
+		if (callersOf != null)
+		{
+			theModule.shareCallersWith((NaturalModule) callersOf);
+		}
 
 		return (INaturalModule) theModule;
 	}
@@ -152,6 +159,22 @@ public class NaturalModuleBuilder
 		return this;
 	}
 
+	NaturalModuleBuilder setDefineDataDiagnostics(ReadOnlyList<IDiagnostic> diagnostics)
+	{
+		defineDataDiagnostics = diagnostics;
+		return this;
+	}
+
+	/**
+	 * Lets the built module share the callers of the given module instead of starting without callers. Callers that get
+	 * added to or removed from either module afterwards are visible in both.
+	 */
+	public NaturalModuleBuilder shareCallersWith(INaturalModule module)
+	{
+		callersOf = module;
+		return this;
+	}
+
 	public NaturalModuleBuilder setBody(IStatementListNode body)
 	{
 		this.body = body;
@@ -1,6 +1,8 @@
 package org.amshove.natparse.parsing;
 
 import org.amshove.natparse.ReadOnlyList;
+import org.amshove.natparse.infrastructure.ActualFilesystem;
+import org.amshove.natparse.infrastructure.ISourceProvider;
 import org.amshove.natparse.lexing.SyntaxKind;
 import org.amshove.natparse.lexing.SyntaxToken;
 import org.amshove.natparse.lexing.TokenList;
@@ -14,28 +16,56 @@ import java.util.List;
 public class NaturalParser
 {
 	private final IModuleProvider moduleProvider;
+	private final ISourceProvider sourceProvider;
 
 	public NaturalParser()
 	{
-		this(null);
+		this(null, new ActualFilesystem());
 	}
 
 	public NaturalParser(IModuleProvider moduleProvider)
+	{
+		this(moduleProvider, new ActualFilesystem());
+	}
+
+	private NaturalParser(IModuleProvider moduleProvider, ISourceProvider sourceProvider)
 	{
 		this.moduleProvider = moduleProvider;
+		this.sourceProvider = sourceProvider;
+	}
+
+	/**
+	 * Creates a parser that resolves referenced modules relative to the parsed file and loads their sources from the
+	 * given provider.
+	 */
+	public static NaturalParser withSourceProvider(ISourceProvider sourceProvider)
+	{
+		return new NaturalParser(null, sourceProvider);
 	}
 
 	public INaturalModule parse(NaturalFile file, TokenList tokens)
+	{
+		return parse(file, tokens, null);
+	}
+
+	/**
+	 * Parses the module, reusing the DEFINE DATA of the previous parse of the same file if every token up to END-DEFINE
+	 * is unchanged and all data areas imported with USING still resolve to the same modules.<br/>
+	 * This is meant for reparsing after an edit, which mostly happens within the body.
+	 *
+	 * @param previousModule the module of the previous parse of the file, may be null
+	 */
+	public INaturalModule parse(NaturalFile file, TokenList tokens, INaturalModule previousModule)
 	{
 		var moduleProviderToUse = moduleProvider;
 		if (moduleProviderToUse == null)
 		{
-			moduleProviderToUse = new DefaultModuleProvider(file);
+			moduleProviderToUse = new DefaultModuleProvider(file, sourceProvider);
 		}
-		return parseModule(file, moduleProviderToUse, tokens);
+		return parseModule(file, moduleProviderToUse, tokens, previousModule);
 	}
 
-	private INaturalModule parseModule(NaturalFile file, IModuleProvider moduleProvider, TokenList tokens)
+	private INaturalModule parseModule(NaturalFile file, IModuleProvider moduleProvider, TokenList tokens, INaturalModule previousModule)
 	{
 		var moduleBuilder = new NaturalModuleBuilder(file)
 			.addDiagnostics(tokens.diagnostics())
@@ -63,7 +93,8 @@ public class NaturalParser
 		// This was introduced to temporarily skip over INCLUDE and OPTION before DEFINE DATA
 		if (advanceToDefineData(tokens))
 		{
-			topLevelNodes.add(parseDefineData(tokens, moduleProvider, moduleBuilder));
+			var reusedDefineData = reuseDefineData(tokens, moduleProvider, moduleBuilder, previousModule);
+			topLevelNodes.add(reusedDefineData != null ? reusedDefineData : parseDefineData(tokens, moduleProvider, moduleBuilder));
 			if (file.getFiletype() == NaturalFileType.FUNCTION && moduleBuilder.getDefineData() != null && functionReturnVariable != null)
 			{
 				var defineData = (DefineDataNode) moduleBuilder.getDefineData();
@@ -186,6 +217,7 @@ public class NaturalParser
 		var defineDataParser = new DefineDataParser(moduleProvider);
 		var result = defineDataParser.parse(tokens);
 		moduleBuilder.addDiagnostics(result.diagnostics());
+		moduleBuilder.setDefineDataDiagnostics(result.diagnostics());
 		var defineData = result.result();
 		if (defineData != null)
 		{
@@ -196,6 +228,78 @@ public class NaturalParser
 		return defineData;
 	}
 
+	private IDefineData reuseDefineData(TokenList tokens, IModuleProvider moduleProvider, NaturalModuleBuilder moduleBuilder, INaturalModule previousModule)
+	{
+		// Functions add their return variable to the DEFINE DATA, so it can't be shared between parses
+		if (!(previousModule instanceof NaturalModule previous)
+			|| previous.defineData() == null
+			|| previous.tokens() == null
+			|| !previous.file().getPath().equals(moduleBuilder.file().getPath())
+			|| moduleBuilder.fileType() == NaturalFileType.FUNCTION)
+		{
+			return null;
+		}
+
+		var currentTokens = tokens.allTokens();
+		var previousTokens = previous.tokens();
+		var endDefineOffset = -1;
+		for (var offset = tokens.getCurrentOffset(); offset < currentTokens.size(); offset++)
+		{
+			if (currentTokens.get(offset).kind() == SyntaxKind.END_DEFINE)
+			{
+				endDefineOffset = offset;
+				break;
+			}
+		}
+
+		if (endDefineOffset == -1 || endDefineOffset >= previousTokens.size())
+		{
+			return null;
+		}
+
+		// Nodes hold their tokens, so the positions have to match too
+		for (var offset = 0; offset <= endDefineOffset; offset++)
+		{
+			if (!isSameToken(currentTokens.get(offset), previousTokens.get(offset)))
+			{
+				return null;
+			}
+		}
+
+		var defineData = previous.defineData();
+		for (var using : defineData.usings())
+		{
+			if (moduleProvider.findNaturalModule(using.referencingToken().symbolName(), null) != using.reference())
+			{
+				return null;
+			}
+		}
+
+		for (var using : defineData.usings())
+		{
+			if (using.reference() != null && !using.reference().callers().contains(using))
+			{
+				using.reference().addCaller(using);
+			}
+		}
+
+		tokens.advanceBy(endDefineOffset + 1 - tokens.getCurrentOffset());
+		moduleBuilder.addDiagnostics(previous.defineDataDiagnostics());
+		moduleBuilder.setDefineDataDiagnostics(previous.defineDataDiagnostics());
+		moduleBuilder.setDefineData(defineData);
+		moduleBuilder.addReferencableNodes(defineData.variables().stream().map(n -> (IReferencableNode) n).toList());
+		return defineData;
+	}
+
+	private static boolean isSameToken(SyntaxToken current, SyntaxToken previous)
+	{
+		return current.kind() == previous.kind()
+			&& current.offset() == previous.offset()
+			&& current.line() == previous.line()
+			&& current.offsetInLine() == previous.offsetInLine()
+			&& current.source().equals(previous.source());
+	}
+
 	private BodyParseResult parseBody(TokenList tokens, IModuleProvider moduleProvider, NaturalModuleBuilder moduleBuilder)
 	{
 		var statementParser = new StatementListParser(moduleProvider);
@@ -459,14 +563,9 @@ public class NaturalParser
 	private List<IViewNode> getAdabasViewsInAccessAtNodePosition(ISyntaxNode node)
 	{
 		var views = new ArrayList<IViewNode>();
-		while (node.parent() != null)
+		for (var adabasAccess : node.enclosingContext().adabasAccesses())
 		{
-			var parent = node.parent();
-			if (parent instanceof IAdabasAccessStatementNode adabasAccess)
-			{
-				views.add((IViewNode) adabasAccess.view().reference());
-			}
-			node = parent;
+			views.add((IViewNode) adabasAccess.view().reference());
 		}
 		return views;
 	}
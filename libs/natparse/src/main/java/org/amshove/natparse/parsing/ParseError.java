@@ -3,7 +3,8 @@ package org.amshove.natparse.parsing;
 import org.amshove.natparse.lexing.SyntaxToken;
 
 /**
- * This Exception is used to bubble parse failures up. It should be caught where error recovery can be done.
+ * This Exception is used to bubble parse failures up. It should be caught where error recovery can be done.<br/>
+ * It is thrown for every syntax error, so it does not capture a stack trace to keep parsing of broken sources cheap.
  */
 class ParseError extends Throwable
 {
@@ -11,6 +12,7 @@ class ParseError extends Throwable
 
 	ParseError(SyntaxToken errorToken)
 	{
+		super(null, null, false, false);
 		this.errorToken = errorToken;
 	}
 
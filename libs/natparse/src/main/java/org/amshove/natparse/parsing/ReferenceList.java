@@ -0,0 +1,48 @@
+package org.amshove.natparse.parsing;
+
+import org.amshove.natparse.ReadOnlyList;
+import org.amshove.natparse.natural.ISymbolReferenceNode;
+
+import java.util.LinkedHashSet;
+
+/**
+ * Holds the references to an {@link org.amshove.natparse.natural.IReferencableNode} in the order they were added.<br/>
+ * Adding and removing a reference is O(1). Reading hands out a snapshot which is shared until the references change
+ * again, because references are read far more often than they change.
+ */
+final class ReferenceList
+{
+	// Synchronized, because callers can get parsed in parallel and add references to the same data area
+	private LinkedHashSet<ISymbolReferenceNode> references;
+	private ReadOnlyList<ISymbolReferenceNode> snapshot = ReadOnlyList.empty();
+
+	synchronized ReadOnlyList<ISymbolReferenceNode> view()
+	{
+		if (snapshot == null)
+		{
+			snapshot = ReadOnlyList.copyOf(references);
+		}
+		return snapshot;
+	}
+
+	synchronized void add(ISymbolReferenceNode reference)
+	{
+		if (references == null)
+		{
+			references = new LinkedHashSet<>();
+		}
+
+		if (references.add(reference))
+		{
+			snapshot = null;
+		}
+	}
+
+	synchronized void remove(ISymbolReferenceNode reference)
+	{
+		if (references != null && references.remove(reference))
+		{
+			snapshot = null;
+		}
+	}
+}
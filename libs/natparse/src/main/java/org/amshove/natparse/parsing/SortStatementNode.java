@@ -10,7 +10,7 @@ import java.util.ArrayList;
 
 class SortStatementNode extends StatementWithBodyNode implements ISortStatementNode
 {
-	private static final List<SortedOperand> operands = new ArrayList<>();
+	private final List<SortedOperand> operands = new ArrayList<>();
 	private final List<IOperandNode> usings = new ArrayList<>();
 
 	@Override
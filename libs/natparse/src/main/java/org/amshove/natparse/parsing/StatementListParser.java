@@ -13,9 +13,6 @@ import org.amshove.natparse.natural.output.IOutputElementNode;
 import org.amshove.natparse.natural.output.IOutputOperandNode;
 import org.amshove.natparse.natural.project.NaturalFileType;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.nio.file.Files;
 import java.util.*;
 import java.util.regex.Pattern;
 
@@ -72,6 +69,13 @@ public class StatementListParser extends AbstractParser<IStatementListNode>
 		return false;
 	}
 
+	private boolean isAtStatementListEnd(Set<SyntaxKind> endTokenKinds)
+	{
+		return !endTokenKinds.isEmpty()
+			&& (endTokenKinds.contains(peekKind())
+				|| (peekKind(SyntaxKind.END_ALL) && containsKindThatIsEndedByEndAll(endTokenKinds)));
+	}
+
 	private StatementListNode statementList(SyntaxKind endTokenKind)
 	{
 		return statementList(Set.of(endTokenKind));
@@ -84,9 +88,7 @@ public class StatementListParser extends AbstractParser<IStatementListNode>
 		{
 			try
 			{
-				if (!endTokenKinds.isEmpty()
-					&& (endTokenKinds.contains(peekKind())
-						|| (peekKind(SyntaxKind.END_ALL) && containsKindThatIsEndedByEndAll(endTokenKinds))))
+				if (isAtStatementListEnd(endTokenKinds))
 				{
 					break;
 				}
@@ -529,8 +531,13 @@ public class StatementListParser extends AbstractParser<IStatementListNode>
 			}
 			catch (ParseError e)
 			{
-				// TODO: Add a ErrorRecoveryNode which eats every token until `isStatementStart()` returns true?
-				tokens.advance();
+				// The closing tokens of the enclosing statement are the synchronization points.
+				// Leave them for the enclosing statement to consume, otherwise e.g. a broken
+				// statement within an IF would also eat the END-IF and cascade into more errors.
+				if (!isAtStatementListEnd(endTokenKinds))
+				{
+					tokens.advance();
+				}
 			}
 			catch (Exception e)
 			{
@@ -3388,67 +3395,60 @@ public class StatementListParser extends AbstractParser<IStatementListNode>
 
 		if (referencedModule != null && currentModuleCallStack.add(referencingToken.symbolName()))
 		{
-			try
+			if (referencedModule.file().getFiletype() != NaturalFileType.COPYCODE)
 			{
-				if (referencedModule.file().getFiletype() != NaturalFileType.COPYCODE)
-				{
-					report(ParserErrors.invalidModuleType("Only copycodes can be INCLUDEd", include.referencingToken()));
-				}
+				report(ParserErrors.invalidModuleType("Only copycodes can be INCLUDEd", include.referencingToken()));
+			}
 
-				var includedSource = Files.readString(referencedModule.file().getPath());
-				var normalizedParameter = new ArrayList<String>(include.providedParameter().size());
-				for (var parameter : include.providedParameter())
-				{
-					var value = parameter instanceof LiteralNode literal
-						? literal.token().stringValue()
-						: ((StringConcatOperandNode) parameter).stringValue();
-					normalizedParameter.add(value);
-				}
-				var lexer = new Lexer(normalizedParameter);
-				lexer.relocateDiagnosticPosition(shouldRelocateDiagnostics() ? relocatedDiagnosticPosition : referencingToken);
-				var tokens = lexer.lex(includedSource, referencedModule.file().getPath());
+			var includedSource = moduleProvider.sourceProvider().readSource(referencedModule.file().getPath());
+			var normalizedParameter = new ArrayList<String>(include.providedParameter().size());
+			for (var parameter : include.providedParameter())
+			{
+				var value = parameter instanceof LiteralNode literal
+					? literal.token().stringValue()
+					: ((StringConcatOperandNode) parameter).stringValue();
+				normalizedParameter.add(value);
+			}
+			var lexer = new Lexer(normalizedParameter);
+			lexer.relocateDiagnosticPosition(shouldRelocateDiagnostics() ? relocatedDiagnosticPosition : referencingToken);
+			var tokens = lexer.lex(includedSource, referencedModule.file().getPath());
 
-				for (var diagnostic : tokens.diagnostics())
-				{
-					report(diagnostic);
-				}
+			for (var diagnostic : tokens.diagnostics())
+			{
+				report(diagnostic);
+			}
 
-				var nestedParser = new StatementListParser(moduleProvider);
-				nestedParser.currentModuleCallStack.addAll(this.currentModuleCallStack);
-				nestedParser.declaredStatementLabels.addAll(this.declaredStatementLabels);
-				nestedParser.relocateDiagnosticPosition(
-					shouldRelocateDiagnostics()
-						? relocatedDiagnosticPosition
-						: referencingToken
-				);
-				var statementList = nestedParser.parse(tokens);
+			var nestedParser = new StatementListParser(moduleProvider);
+			nestedParser.currentModuleCallStack.addAll(this.currentModuleCallStack);
+			nestedParser.declaredStatementLabels.addAll(this.declaredStatementLabels);
+			nestedParser.relocateDiagnosticPosition(
+				shouldRelocateDiagnostics()
+					? relocatedDiagnosticPosition
+					: referencingToken
+			);
+			var statementList = nestedParser.parse(tokens);
 
-				for (var diagnostic : statementList.diagnostics())
+			for (var diagnostic : statementList.diagnostics())
+			{
+				if (!ParserError.isUnresolvedError(diagnostic.id()))
 				{
-					if (!ParserError.isUnresolvedError(diagnostic.id()))
-					{
-						// Unresolved references will be resolved by the module including the copycode.
-						report(diagnostic);
-					}
+					// Unresolved references will be resolved by the module including the copycode.
+					report(diagnostic);
 				}
+			}
 
-				externalModuleReferences.addAll(nestedParser.externalModuleReferences);
-				this.declaredStatementLabels.addAll(nestedParser.declaredStatementLabels);
+			externalModuleReferences.addAll(nestedParser.externalModuleReferences);
+			this.declaredStatementLabels.addAll(nestedParser.declaredStatementLabels);
 
-				unresolvedSymbols.addAll(nestedParser.unresolvedSymbols);
-				referencableNodes.addAll(nestedParser.referencableNodes);
-				include.setBody(
-					statementList.result(),
-					shouldRelocateDiagnostics()
-						? relocatedDiagnosticPosition
-						: referencingToken
-				);
-				currentModuleCallStack.remove(referencingToken.symbolName());
-			}
-			catch (IOException e)
-			{
-				throw new UncheckedIOException(e);
-			}
+			unresolvedSymbols.addAll(nestedParser.unresolvedSymbols);
+			referencableNodes.addAll(nestedParser.referencableNodes);
+			include.setBody(
+				statementList.result(),
+				shouldRelocateDiagnostics()
+					? relocatedDiagnosticPosition
+					: referencingToken
+			);
+			currentModuleCallStack.remove(referencingToken.symbolName());
 		}
 		else
 		{
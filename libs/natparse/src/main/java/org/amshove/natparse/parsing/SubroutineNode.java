@@ -7,12 +7,9 @@ import org.amshove.natparse.natural.ISubroutineNode;
 import org.amshove.natparse.natural.ISymbolReferenceNode;
 import org.jspecify.annotations.NonNull;
 
-import java.util.ArrayList;
-import java.util.List;
-
 class SubroutineNode extends StatementWithBodyNode implements ISubroutineNode
 {
-	private final List<ISymbolReferenceNode> references = new ArrayList<>();
+	private final ReferenceList references = new ReferenceList();
 	private SyntaxToken nameToken;
 
 	@Override
@@ -36,7 +33,7 @@ class SubroutineNode extends StatementWithBodyNode implements ISubroutineNode
 	@Override
 	public ReadOnlyList<ISymbolReferenceNode> references()
 	{
-		return ReadOnlyList.from(references);
+		return references.view();
 	}
 
 	@Override
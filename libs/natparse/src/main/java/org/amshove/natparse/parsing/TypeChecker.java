@@ -1,7 +1,6 @@
 package org.amshove.natparse.parsing;
 
 import org.amshove.natparse.IDiagnostic;
-import org.amshove.natparse.NodeUtil;
 import org.amshove.natparse.ReadOnlyList;
 import org.amshove.natparse.lexing.SyntaxKind;
 import org.amshove.natparse.natural.*;
@@ -357,6 +356,19 @@ final class TypeChecker implements ISyntaxNodeVisitor
 		}
 	}
 
+	private static boolean isWithinFind(ISyntaxNode node)
+	{
+		for (var adabasAccess : node.enclosingContext().adabasAccesses())
+		{
+			if (adabasAccess instanceof IFindNode)
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
 	private void checkVariableReference(IVariableReferenceNode variableReference)
 	{
 		if (!(variableReference.reference()instanceof IVariableNode target))
@@ -364,7 +376,7 @@ final class TypeChecker implements ISyntaxNodeVisitor
 			return;
 		}
 
-		if (NodeUtil.findFirstParentOfType(variableReference, IFindNode.class) != null)
+		if (isWithinFind(variableReference))
 		{
 			// Can't correctly type check DDM fields yet, because DDM fields don't have their type loaded
 			return;
@@ -18,7 +18,7 @@ class VariableNode extends BaseSyntaxNode implements IVariableNode
 	private SyntaxToken declaration;
 	private VariableScope scope;
 	private ITokenNode identifierNode;
-	private final List<ISymbolReferenceNode> references = new ArrayList<>();
+	private final ReferenceList references = new ReferenceList();
 
 	protected final List<IArrayDimension> dimensions = new ArrayList<>();
 
@@ -28,7 +28,7 @@ class VariableNode extends BaseSyntaxNode implements IVariableNode
 	@NonNull
 	public ReadOnlyList<ISymbolReferenceNode> references()
 	{
-		return ReadOnlyList.from(references); // TODO: Perf
+		return references.view();
 	}
 
 	@Override
@@ -0,0 +1,86 @@
+package org.amshove.natparse.infrastructure;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingSourceProviderShould
+{
+	@TempDir
+	Path directory;
+
+	@Test
+	void cacheTheContentOfFilesThatHaveNotBeenModifiedRecently() throws IOException
+	{
+		var provider = new CachingSourceProvider();
+		var path = writeOldFile("SUB.NSN", "WRITE 'Hi'");
+
+		assertThat(provider.readSource(path)).isEqualTo("WRITE 'Hi'");
+		assertThat(provider.cachedFiles()).isEqualTo(1);
+	}
+
+	@Test
+	void notCacheFilesThatHaveBeenModifiedJustNow() throws IOException
+	{
+		var provider = new CachingSourceProvider();
+		var path = directory.resolve("SUB.NSN");
+		Files.writeString(path, "WRITE 'Hi'");
+
+		assertThat(provider.readSource(path)).isEqualTo("WRITE 'Hi'");
+		assertThat(provider.cachedFiles()).isZero();
+	}
+
+	@Test
+	void rereadFilesWhoseModificationTimeChanged() throws IOException
+	{
+		var provider = new CachingSourceProvider();
+		var path = writeOldFile("SUB.NSN", "WRITE 'Hi'");
+		provider.readSource(path);
+
+		Files.writeString(path, "WRITE 'Ho'");
+		Files.setLastModifiedTime(path, FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS)));
+
+		assertThat(provider.readSource(path)).isEqualTo("WRITE 'Ho'");
+	}
+
+	@Test
+	void evictTheLeastRecentlyReadFilesWhenTheLimitIsExceeded() throws IOException
+	{
+		var provider = new CachingSourceProvider(25);
+		var first = writeOldFile("FIRST.NSN", "WRITE 'First'");
+		var second = writeOldFile("SECOND.NSN", "WRITE 'Second'");
+
+		provider.readSource(first);
+		provider.readSource(second);
+
+		assertThat(provider.cachedFiles()).isEqualTo(1);
+		assertThat(provider.readSource(first)).isEqualTo("WRITE 'First'");
+	}
+
+	@Test
+	void throwAnUncheckedExceptionForMissingFiles()
+	{
+		var provider = new CachingSourceProvider();
+
+		assertThatThrownBy(() -> provider.readSource(directory.resolve("MISSING.NSN")))
+			.isInstanceOf(UncheckedIOException.class);
+	}
+
+	private Path writeOldFile(String name, String content) throws IOException
+	{
+		var path = directory.resolve(name);
+		Files.writeString(path, content);
+		Files.setLastModifiedTime(path, FileTime.from(Instant.now().minus(2, ChronoUnit.DAYS)));
+		return path;
+	}
+}
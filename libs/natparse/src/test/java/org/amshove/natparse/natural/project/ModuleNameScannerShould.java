@@ -0,0 +1,100 @@
+package org.amshove.natparse.natural.project;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ModuleNameScannerShould
+{
+	@Test
+	void findTheNameOfASubroutine()
+	{
+		assertThat(ModuleNameScanner.findSubroutineName("""
+			DEFINE DATA
+			LOCAL 1 #VAR (A10)
+			END-DEFINE
+			DEFINE SUBROUTINE MY-SUBROUTINE
+			IGNORE
+			END-SUBROUTINE
+			END
+			""")).isEqualTo("MY-SUBROUTINE");
+	}
+
+	@Test
+	void findTheNameOfASubroutineDeclaredWithoutSubroutineKeyword()
+	{
+		assertThat(ModuleNameScanner.findSubroutineName("""
+			DEFINE DATA
+			PARAMETER USING MYPDA
+			END-DEFINE
+			DEFINE THE-SUB
+			IGNORE
+			END-SUBROUTINE
+			END
+			""")).isEqualTo("THE-SUB");
+	}
+
+	@Test
+	void findTheNameOfASubroutineSpanningMultipleLines()
+	{
+		assertThat(ModuleNameScanner.findSubroutineName("""
+			define subroutine
+			  lower-case-sub
+			ignore
+			end-subroutine
+			end
+			""")).isEqualTo("LOWER-CASE-SUB");
+	}
+
+	@Test
+	void skipCommentsAndStringsWhenLookingForTheSubroutineName()
+	{
+		assertThat(ModuleNameScanner.findSubroutineName("""
+			* DEFINE SUBROUTINE IN-COMMENT
+			** DEFINE SUBROUTINE IN-DOUBLE-COMMENT
+			DEFINE DATA LOCAL
+			1 #TEXT (A20) INIT <'DEFINE SUBROUTINE IN-STRING'> /* DEFINE SUBROUTINE INLINE
+			END-DEFINE
+			DEFINE SUBROUTINE THE-REAL-ONE
+			IGNORE
+			END-SUBROUTINE
+			END
+			""")).isEqualTo("THE-REAL-ONE");
+	}
+
+	@Test
+	void skipOtherDefineStatementsWhenLookingForTheSubroutineName()
+	{
+		assertThat(ModuleNameScanner.findSubroutineName("""
+			DEFINE PRINTER (2) OUTPUT 'LPT1'
+			DEFINE SUBROUTINE AFTER-PRINTER
+			END-SUBROUTINE
+			END
+			""")).isEqualTo("AFTER-PRINTER");
+	}
+
+	@Test
+	void returnNullIfNoSubroutineIsDeclared()
+	{
+		assertThat(ModuleNameScanner.findSubroutineName("""
+			DEFINE DATA LOCAL
+			END-DEFINE
+			END
+			""")).isNull();
+	}
+
+	@Test
+	void findTheNameOfAFunction()
+	{
+		assertThat(ModuleNameScanner.findFunctionName("""
+			* >Natural Source Header 000000
+			DEFINE FUNCTION MY-FUNC
+			RETURNS (L)
+			DEFINE DATA LOCAL
+			END-DEFINE
+			MY-FUNC := TRUE
+			END-FUNCTION
+			END
+			""")).isEqualTo("MY-FUNC");
+	}
+}
@@ -1094,6 +1094,26 @@ class DefineDataParserShould extends AbstractParserTest<IDefineData>
 		assertThat(defineData.findVariable("#VAR-AFTER")).as("#VAR-AFTER not found").isNotNull();
 	}
 
+	@Test
+	void findVariablesByNameAndQualifiedNameInDeclarationOrder()
+	{
+		var defineData = assertParsesWithoutDiagnostics("""
+			DEFINE DATA
+			LOCAL
+			1 #FIRST-GRP
+			  2 #NAME (A10)
+			1 #SECOND-GRP
+			  2 #NAME (A10)
+			END-DEFINE
+			END
+			""");
+
+		assertThat(defineData.findVariable("#NAME").qualifiedName()).isEqualTo("#FIRST-GRP.#NAME");
+		assertThat(defineData.findVariable("#SECOND-GRP.#NAME").qualifiedName()).isEqualTo("#SECOND-GRP.#NAME");
+		assertThat(defineData.findVariable("#SECOND-GRP")).isNotNull();
+		assertThat(defineData.findVariable("#THIRD-GRP")).isNull();
+	}
+
 	@Test
 	void notReportALengthDiagnosticForNestedRedefineVariables()
 	{
@@ -0,0 +1,86 @@
+package org.amshove.natparse.parsing;
+
+import org.amshove.natparse.NodeUtil;
+import org.amshove.natparse.lexing.Lexer;
+import org.amshove.natparse.natural.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EnclosingContextShould extends StatementParseTest
+{
+	@Test
+	void haveNoContextForNodesWithoutParent()
+	{
+		var statementList = assertParsesWithoutDiagnostics("""
+			DEFINE SUBROUTINE MY-SUB
+			IGNORE
+			END-SUBROUTINE
+			""");
+
+		assertThat(statementList.enclosingContext()).isEqualTo(EnclosingContext.NONE);
+		assertThat(statementList.statements().first().enclosingContext().statement()).isSameAs(statementList);
+		assertThat(statementList.statements().first().enclosingContext().subroutine()).isNull();
+	}
+
+	@Test
+	void containTheClosestEnclosingNodes()
+	{
+		var subroutine = assertParsesSingleStatement("""
+			DEFINE SUBROUTINE MY-SUB
+			READ THE-VIEW BY THE-DESCRIPTOR
+			  FIND OTHER-VIEW WITH THE-DESCRIPTOR = 'A'
+			    WRITE 'Hi'
+			  END-FIND
+			END-READ
+			END-SUBROUTINE
+			""", ISubroutineNode.class);
+
+		var read = NodeUtil.findNodesOfType(subroutine, IReadNode.class).getFirst();
+		var find = NodeUtil.findNodesOfType(subroutine, IFindNode.class).getFirst();
+		var write = NodeUtil.findNodesOfType(subroutine, IWriteNode.class).getFirst();
+
+		var context = write.enclosingContext();
+		assertThat(context.statement()).isSameAs(find);
+		assertThat(context.adabasAccess()).isSameAs(find);
+		assertThat(context.subroutine()).isSameAs(subroutine);
+		assertThat(context.redefinition()).isNull();
+		assertThat(context.adabasAccesses()).containsExactly(find, read);
+	}
+
+	@Test
+	void containTheEnclosingStatementForAllDescendants()
+	{
+		var subroutine = assertParsesSingleStatement("""
+			DEFINE SUBROUTINE MY-SUB
+			WRITE 'Hi'
+			END-SUBROUTINE
+			""", ISubroutineNode.class);
+
+		var write = NodeUtil.findNodesOfType(subroutine, IWriteNode.class).getFirst();
+		var literal = write.descendants().last();
+
+		assertThat(literal.enclosingContext().statement()).isSameAs(write);
+		assertThat(write.descendants().first().enclosingContext()).isEqualTo(literal.enclosingContext());
+	}
+
+	@Test
+	void containTheEnclosingRedefinition()
+	{
+		var defineData = new DefineDataParser(moduleProvider).parse(new Lexer().lex("""
+			DEFINE DATA
+			LOCAL
+			1 #ASTRING (A10)
+			1 REDEFINE #ASTRING
+			  2 #GROUP
+			    3 #PART (A5)
+			END-DEFINE
+			""", Paths.get("MODULE.NSN"))).result();
+
+		var redefine = defineData.variables().stream().filter(IRedefinitionNode.class::isInstance).findFirst().orElseThrow();
+		assertThat(defineData.findVariable("#PART").enclosingContext().redefinition()).isSameAs(redefine);
+		assertThat(defineData.findVariable("#ASTRING").enclosingContext().redefinition()).isNull();
+	}
+}
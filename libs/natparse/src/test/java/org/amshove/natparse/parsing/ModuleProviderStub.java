@@ -1,5 +1,7 @@
 package org.amshove.natparse.parsing;
 
+import org.amshove.natparse.infrastructure.ActualFilesystem;
+import org.amshove.natparse.infrastructure.ISourceProvider;
 import org.amshove.natparse.natural.INaturalModule;
 import org.amshove.natparse.natural.ddm.IDataDefinitionModule;
 import org.amshove.natparse.natural.project.NaturalFileType;
@@ -11,6 +13,7 @@ public class ModuleProviderStub implements IModuleProvider
 {
 	private final Map<String, INaturalModule> referableModules = new HashMap<>();
 	private final Map<String, IDataDefinitionModule> ddms = new HashMap<>();
+	private final ISourceProvider sourceProvider = new ActualFilesystem();
 
 	public ModuleProviderStub addModule(String referableName, INaturalModule module)
 	{
@@ -30,6 +33,12 @@ public class ModuleProviderStub implements IModuleProvider
 		return ddms.get(referableName);
 	}
 
+	@Override
+	public ISourceProvider sourceProvider()
+	{
+		return sourceProvider;
+	}
+
 	public void addDdm(String ddmName, IDataDefinitionModule ddm)
 	{
 		ddms.put(ddmName, ddm);
@@ -1,12 +1,20 @@
 package org.amshove.natparse.parsing;
 
+import org.amshove.natparse.IDiagnostic;
+import org.amshove.natparse.lexing.Lexer;
 import org.amshove.natparse.natural.DataFormat;
 import org.amshove.natparse.natural.IFunction;
+import org.amshove.natparse.natural.IHasDefineData;
+import org.amshove.natparse.natural.INaturalModule;
 import org.amshove.natparse.natural.ITypedVariableNode;
+import org.amshove.natparse.natural.project.NaturalFile;
+import org.amshove.natparse.natural.project.NaturalFileType;
 import org.amshove.natparse.natural.project.NaturalProject;
 import org.amshove.testhelpers.ProjectName;
 import org.junit.jupiter.api.Test;
 
+import java.nio.file.Paths;
+
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
 @SuppressWarnings("DataFlowIssue")
@@ -119,4 +127,99 @@ class NaturalParserShould extends ParserIntegrationTest
 		var module = parse(project.findModule("LIBONE", "REPORT"));
 		assertThat(module.diagnostics()).anyMatch(d -> d.id().equals(ParserError.UNSUPPORTED_PROGRAMMING_MODE.id()));
 	}
+
+	@Test
+	void reuseAnUnchangedDefineDataWhenReparsingAModule()
+	{
+		var previous = parseSubprogram(new ModuleProviderStub(), """
+			DEFINE DATA
+			LOCAL USING MISSING
+			LOCAL 1 #VAR (A10)
+			END-DEFINE
+			WRITE #VAR
+			END
+			""", null);
+		var reparsed = parseSubprogram(new ModuleProviderStub(), """
+			DEFINE DATA
+			LOCAL USING MISSING
+			LOCAL 1 #VAR (A10)
+			END-DEFINE
+			WRITE #VAR
+			WRITE #VAR
+			END
+			""", previous);
+
+		var defineData = ((IHasDefineData) reparsed).defineData();
+		assertThat(defineData).isSameAs(((IHasDefineData) previous).defineData());
+		assertThat(reparsed.diagnostics().stream().map(IDiagnostic::id).toList())
+			.as("Diagnostics of the DEFINE DATA should be kept")
+			.isNotEmpty()
+			.isEqualTo(previous.diagnostics().stream().map(IDiagnostic::id).toList());
+		assertThat(reparsed.referencableNodes()).contains(defineData.findVariable("#VAR"));
+		assertThat(defineData.findVariable("#VAR").references())
+			.filteredOn(r -> r.referencingToken().line() == 5)
+			.hasSize(1);
+	}
+
+	@Test
+	void notReuseTheDefineDataWhenItChanged()
+	{
+		var previous = parseSubprogram(new ModuleProviderStub(), """
+			DEFINE DATA LOCAL
+			1 #VAR (A10)
+			END-DEFINE
+			WRITE #VAR
+			END
+			""", null);
+		var reparsed = parseSubprogram(new ModuleProviderStub(), """
+			DEFINE DATA LOCAL
+			1 #VAR (A20)
+			END-DEFINE
+			WRITE #VAR
+			END
+			""", previous);
+
+		assertThat(((IHasDefineData) reparsed).defineData()).isNotSameAs(((IHasDefineData) previous).defineData());
+	}
+
+	@Test
+	void notReuseTheDefineDataWhenAnImportedDataAreaChanged()
+	{
+		var source = """
+			DEFINE DATA
+			LOCAL USING MYLDA
+			END-DEFINE
+			WRITE #LDAVAR
+			END
+			""";
+		var moduleProvider = new ModuleProviderStub();
+		moduleProvider.addModule("MYLDA", parseLda(moduleProvider, "1 #LDAVAR (A10)"));
+		var previous = parseSubprogram(moduleProvider, source, null);
+
+		moduleProvider.addModule("MYLDA", parseLda(moduleProvider, "1 #LDAVAR (N5)"));
+		var reparsed = parseSubprogram(moduleProvider, source, previous);
+
+		var defineData = ((IHasDefineData) reparsed).defineData();
+		assertThat(defineData).isNotSameAs(((IHasDefineData) previous).defineData());
+		assertThat(((ITypedVariableNode) defineData.findVariable("#LDAVAR")).type().format()).isEqualTo(DataFormat.NUMERIC);
+	}
+
+	private INaturalModule parseSubprogram(ModuleProviderStub moduleProvider, String source, INaturalModule previous)
+	{
+		var path = Paths.get("SUBPROG.NSN");
+		var file = new NaturalFile("SUBPROG", path, NaturalFileType.SUBPROGRAM);
+		return new NaturalParser(moduleProvider).parse(file, new Lexer().lex(source, path), previous);
+	}
+
+	private INaturalModule parseLda(ModuleProviderStub moduleProvider, String variables)
+	{
+		var path = Paths.get("MYLDA.NSL");
+		var file = new NaturalFile("MYLDA", path, NaturalFileType.LDA);
+		var source = """
+			DEFINE DATA LOCAL
+			%s
+			END-DEFINE
+			""".formatted(variables);
+		return new NaturalParser(moduleProvider).parse(file, new Lexer().lex(source, path));
+	}
 }
@@ -0,0 +1,78 @@
+package org.amshove.natparse.parsing;
+
+import org.amshove.natparse.lexing.SyntaxKind;
+import org.amshove.natparse.lexing.SyntaxToken;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReferenceListShould
+{
+	@Test
+	void beEmptyWithoutReferences()
+	{
+		assertThat(new ReferenceList().view()).isEmpty();
+	}
+
+	@Test
+	void keepReferencesInTheOrderTheyWereAdded()
+	{
+		var list = new ReferenceList();
+		var first = reference(1);
+		var second = reference(2);
+		var third = reference(3);
+
+		list.add(first);
+		list.add(second);
+		list.add(third);
+
+		assertThat(list.view()).containsExactly(first, second, third);
+	}
+
+	@Test
+	void shareTheViewUntilTheReferencesChange()
+	{
+		var list = new ReferenceList();
+		list.add(reference(1));
+
+		var view = list.view();
+		assertThat(list.view()).isSameAs(view);
+
+		list.add(reference(2));
+		assertThat(list.view()).isNotSameAs(view);
+		assertThat(view).hasSize(1);
+	}
+
+	@Test
+	void removeReferences()
+	{
+		var list = new ReferenceList();
+		var first = reference(1);
+		var second = reference(2);
+		list.add(first);
+		list.add(second);
+
+		list.remove(first);
+
+		assertThat(list.view()).containsExactly(second);
+	}
+
+	@Test
+	void notChangeTheViewWhenRemovingAnUnknownReference()
+	{
+		var list = new ReferenceList();
+		list.add(reference(1));
+		var view = list.view();
+
+		list.remove(reference(2));
+
+		assertThat(list.view()).isSameAs(view);
+	}
+
+	private static SymbolReferenceNode reference(int line)
+	{
+		return new SymbolReferenceNode(new SyntaxToken(SyntaxKind.IDENTIFIER, 0, 0, line, "#VAR", Paths.get("MODULE.NSN")));
+	}
+}
@@ -1,5 +1,6 @@
 package org.amshove.natparse.parsing;
 
+import org.amshove.natparse.lexing.Lexer;
 import org.amshove.natparse.lexing.SyntaxKind;
 import org.amshove.natparse.lexing.SyntaxToken;
 import org.amshove.natparse.natural.*;
@@ -12,6 +13,8 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.nio.file.Paths;
+
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
@@ -968,6 +971,22 @@ class StatementListParserShould extends StatementParseTest
 			""", ParserError.UNCLOSED_STATEMENT);
 	}
 
+	@Test
+	void notConsumeTheClosingTokenOfTheEnclosingStatementWhenRecoveringFromAnError()
+	{
+		var lexer = new Lexer();
+		var tokens = lexer.lex("""
+			IF 5 > 2
+			    MOVE 5
+			END-IF
+			""", Paths.get("TESTMODULE.NSN"));
+		var result = sut.parse(tokens);
+
+		assertThat(result.diagnostics()).anyMatch(d -> d.id().equals(ParserError.UNEXPECTED_TOKEN.id()));
+		assertThat(result.diagnostics()).noneMatch(d -> d.id().equals(ParserError.UNCLOSED_STATEMENT.id()));
+		assertThat(result.result().statements().first()).isInstanceOf(IIfStatementNode.class);
+	}
+
 	@Test
 	void parseIfNoRecord()
 	{
@@ -223,6 +223,18 @@ T L DB Name                              F Leng  S D Remark
 		return new DdmParser().parseDdm(resourceSource);
 	}
 
+	@Test
+	void findFieldsByNameIncludingNestedGroupMembers()
+	{
+		var ddm = parseFromResource("CompleteDdm.NSD");
+
+		assertThat(ddm.findField("SOME-NUMBER")).isSameAs(findField(ddm, "SOME-NUMBER"));
+		assertThat(ddm.findField("top-level-group-group-child").name()).isEqualTo("TOP-LEVEL-GROUP-GROUP-CHILD");
+		assertThat(ddm.findField("PERIODIC-MEMBER").level()).isEqualTo(2);
+		assertThat(ddm.findField("VIEW.PERIODIC-MEMBER").name()).isEqualTo("PERIODIC-MEMBER");
+		assertThat(ddm.findField("NOT-IN-THE-DDM")).isNull();
+	}
+
 	private IDdmField findField(IDataDefinitionModule ddm, String fieldname)
 	{
 		return ddm
@@ -0,0 +1,129 @@
+package org.amshove.natqube.sensor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.function.Consumer;
+
+/**
+ * Streams the diagnostics of a CSV file written by natlint line by line.<br/>
+ * Expected columns: file;ruleId;severity;message;line;offset;length;descriptionUrl. The descriptionUrl is optional.
+ */
+final class CsvDiagnosticReader
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(CsvDiagnosticReader.class);
+	private static final char SEPARATOR = ';';
+
+	private CsvDiagnosticReader()
+	{}
+
+	/**
+	 * Passes every diagnostic of the file to the consumer as soon as its line has been read, so that no more than one
+	 * diagnostic is held at a time.
+	 *
+	 * @return the number of diagnostics read
+	 */
+	static int read(InputFile diagnosticFile, Consumer<CsvDiagnostic> consumer) throws IOException
+	{
+		var diagnosticCount = 0;
+		try (var reader = new BufferedReader(new InputStreamReader(diagnosticFile.inputStream(), diagnosticFile.charset())))
+		{
+			reader.readLine(); // header
+
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				if (line.isEmpty())
+				{
+					continue;
+				}
+
+				var diagnostic = parseLine(line);
+				if (diagnostic == null)
+				{
+					LOGGER.error("Diagnostic line <{}> in file <{}> does not have the expected columns", line, diagnosticFile.filename());
+					continue;
+				}
+
+				consumer.accept(diagnostic);
+				diagnosticCount++;
+			}
+		}
+
+		return diagnosticCount;
+	}
+
+	/**
+	 * Parses a single line, returning null if it is malformed.<br/>
+	 * The numeric columns are searched from the end of the line, so that messages can contain the separator.
+	 */
+	static CsvDiagnostic parseLine(String line)
+	{
+		var fileEnd = line.indexOf(SEPARATOR);
+		var ruleIdEnd = fileEnd < 0 ? -1 : line.indexOf(SEPARATOR, fileEnd + 1);
+		var severityEnd = ruleIdEnd < 0 ? -1 : line.indexOf(SEPARATOR, ruleIdEnd + 1);
+		if (severityEnd < 0)
+		{
+			return null;
+		}
+
+		var columnEnd = line.length();
+		var columnStart = line.lastIndexOf(SEPARATOR) + 1;
+		if (parseNumber(line, columnStart, columnEnd) < 0)
+		{
+			// descriptionUrl
+			columnEnd = columnStart - 1;
+			columnStart = line.lastIndexOf(SEPARATOR, columnEnd - 1) + 1;
+		}
+
+		var length = parseNumber(line, columnStart, columnEnd);
+		columnEnd = columnStart - 1;
+		columnStart = line.lastIndexOf(SEPARATOR, columnEnd - 1) + 1;
+		var offset = parseNumber(line, columnStart, columnEnd);
+		columnEnd = columnStart - 1;
+		columnStart = line.lastIndexOf(SEPARATOR, columnEnd - 1) + 1;
+		var lineNumber = parseNumber(line, columnStart, columnEnd);
+		var messageEnd = columnStart - 1;
+
+		if (length < 0 || offset < 0 || lineNumber < 0 || messageEnd <= severityEnd)
+		{
+			return null;
+		}
+
+		return new CsvDiagnostic(
+			line.substring(fileEnd + 1, ruleIdEnd),
+			line.substring(0, fileEnd),
+			lineNumber,
+			offset,
+			length,
+			line.substring(severityEnd + 1, messageEnd)
+		);
+	}
+
+	/**
+	 * Parses the non-negative number between start (inclusive) and end (exclusive), returning -1 if there is none.
+	 */
+	private static int parseNumber(String line, int start, int end)
+	{
+		if (start < 0 || start >= end)
+		{
+			return -1;
+		}
+
+		var number = 0;
+		for (var i = start; i < end; i++)
+		{
+			var digit = line.charAt(i) - '0';
+			if (digit < 0 || digit > 9 || number > (Integer.MAX_VALUE - digit) / 10)
+			{
+				return -1;
+			}
+			number = number * 10 + digit;
+		}
+		return number;
+	}
+}
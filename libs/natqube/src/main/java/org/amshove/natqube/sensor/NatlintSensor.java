@@ -14,12 +14,14 @@ import org.sonar.api.rule.RuleKey;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 @SuppressWarnings("deprecation")
 public class NatlintSensor implements Sensor
 {
 	private static final Logger LOGGER = LoggerFactory.getLogger(NatlintSensor.class);
+	private static final Pattern DIAGNOSTIC_FILE_NAME = Pattern.compile("diagnostics-\\d+\\.csv");
 	private Map<String, InputFile> naturalFilesByRelativePath;
 
 	@Override
@@ -39,7 +41,7 @@ public class NatlintSensor implements Sensor
 
 		for (var inputFile : context.fileSystem().inputFiles(f -> true))
 		{
-			if (isInNatlintFolder(inputFile) && inputFile.filename().matches("diagnostics-\\d+\\.csv"))
+			if (isInNatlintFolder(inputFile) && DIAGNOSTIC_FILE_NAME.matcher(inputFile.filename()).matches())
 			{
 				var filename = inputFile.filename();
 				LOGGER.info("Found diagnostic file: {}", filename);
@@ -67,29 +69,21 @@ public class NatlintSensor implements Sensor
 		var diagnosticFileName = diagnosticFile.filename();
 		LOGGER.info("Processing diagnostics file {}", diagnosticFileName);
 
-		var diagnostics = readDiagnostics(diagnosticFile);
-		if (diagnostics.isEmpty())
+		int diagnosticCount;
+		try
 		{
-			LOGGER.warn("No diagnostics found in file {}", diagnosticFileName);
+			diagnosticCount = CsvDiagnosticReader.read(diagnosticFile, new IssueSaver(context));
+		}
+		catch (IOException e)
+		{
+			LOGGER.error("Could not read diagnostics from file {}", diagnosticFileName, e);
 			return;
 		}
 
-		var diagnosticCount = 0;
-
-		for (var entry : diagnostics.entrySet())
+		if (diagnosticCount == 0)
 		{
-			diagnosticCount += entry.getValue().size();
-			var inputFile = naturalFilesByRelativePath.get(entry.getKey());
-			if (inputFile == null)
-			{
-				LOGGER.warn("Could not find input file for URI {}", entry.getKey());
-				continue;
-			}
-
-			for (var diagnostic : entry.getValue())
-			{
-				saveDiagnosticAsIssue(context, inputFile, diagnostic);
-			}
+			LOGGER.warn("No diagnostics found in file {}", diagnosticFileName);
+			return;
 		}
 
 		LOGGER.info("Processed {} diagnostics from file {}", diagnosticCount, diagnosticFileName);
@@ -133,44 +127,38 @@ public class NatlintSensor implements Sensor
 		}
 	}
 
-	// file;ruleId;severity;message;line;offset;length;url
-	private static final int FILE_PATH_INDEX = 0;
-	private static final int RULE_ID_INDEX = 1;
-	private static final int MESSAGE_INDEX = 3;
-	private static final int LINE_INDEX = 4;
-	private static final int OFFSET_INDEX = 5;
-	private static final int LENGTH_INDEX = 6;
-
-	private Map<String, List<CsvDiagnostic>> readDiagnostics(InputFile diagnosticFile)
+	/**
+	 * Saves diagnostics as issues while they are read. natlint writes all diagnostics of a module one after another, so
+	 * the input file only has to be looked up when the module changes.
+	 */
+	private final class IssueSaver implements Consumer<CsvDiagnostic>
 	{
-		try
+		private final SensorContext context;
+		private String currentRelativePath;
+		private InputFile currentInputFile;
+
+		private IssueSaver(SensorContext context)
 		{
-			return diagnosticFile.contents().lines().skip(1).map(l ->
+			this.context = context;
+		}
+
+		@Override
+		public void accept(CsvDiagnostic diagnostic)
+		{
+			if (!diagnostic.getRelativePath().equals(currentRelativePath))
 			{
-				var split = l.split(";");
-				if (split.length < 7)
+				currentRelativePath = diagnostic.getRelativePath();
+				currentInputFile = naturalFilesByRelativePath.get(currentRelativePath);
+				if (currentInputFile == null)
 				{
-					LOGGER.error("Diagnostic line <{}> in file <{}> does not have the expected number of columns. It has {}", l, diagnosticFile.filename(), split.length);
-					return null;
+					LOGGER.warn("Could not find input file for URI {}", currentRelativePath);
 				}
-				var relativePath = split[FILE_PATH_INDEX];
-				var id = split[RULE_ID_INDEX];
-				var line = split[LINE_INDEX];
-				var offset = split[OFFSET_INDEX];
-				var length = split[LENGTH_INDEX];
-				var message = split[MESSAGE_INDEX];
-				return new CsvDiagnostic(
-					id, relativePath, Integer.parseInt(line), Integer.parseInt(offset),
-					Integer.parseInt(length), message
-				);
-			})
-				.filter(Objects::nonNull)
-				.collect(Collectors.groupingBy(CsvDiagnostic::getRelativePath));
-		}
-		catch (IOException e)
-		{
-			LOGGER.error("Could not read diagnostics from file {}", diagnosticFile.filename(), e);
-			return Map.of();
+			}
+
+			if (currentInputFile != null)
+			{
+				saveDiagnosticAsIssue(context, currentInputFile, diagnostic);
+			}
 		}
 	}
 }
@@ -36,4 +36,26 @@ class NatlintSensorShould extends SonarQubeTest
 			.as("Number of all issues in project <%s> mismatches", projectPath)
 			.hasSize(1);
 	}
+
+	@Test
+	void addIssuesOfAllDiagnosticFiles()
+	{
+		var subprogram = addNaturalFile("SUB.NSN", "DEFINE DATA LOCAL%n1 #A (A1)%n1 #B (A1)%nEND-DEFINE%n".formatted());
+		var otherSubprogram = addNaturalFile("SUB2.NSN", "DEFINE DATA LOCAL%n1 #C (A1)%nEND-DEFINE%n".formatted());
+
+		addDiagnostic(new CsvDiagnostic("NL001", subprogram.relativePath(), 1, 2, 2, "Variable #A is unused"));
+		addDiagnostic(new CsvDiagnostic("NL001", subprogram.relativePath(), 2, 2, 2, "Variable #B is unused"));
+		addDiagnostic(new CsvDiagnostic("NL001", otherSubprogram.relativePath(), 1, 2, 2, "Variable #C is unused"));
+
+		var sensor = new NatlintSensor();
+		sensor.execute(context);
+
+		assertThat(context.allAnalysisErrors())
+			.as("Expected no analysis errors")
+			.isEmpty();
+
+		assertThat(context.allIssues())
+			.as("Number of all issues in project <%s> mismatches", projectPath)
+			.hasSize(3);
+	}
 }
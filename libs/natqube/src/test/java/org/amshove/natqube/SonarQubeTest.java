@@ -11,6 +11,7 @@ import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.api.measures.Metric;
 
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
@@ -48,6 +49,7 @@ public abstract class SonarQubeTest
 	protected void addDiagnostic(CsvDiagnostic diagnostic)
 	{
 		var diagnosticFile = new TestInputFileBuilder(projectKey, "natlint/diagnostics-%d.csv".formatted(diagnosticFileCounter++))
+			.setCharset(StandardCharsets.UTF_8)
 			.setProjectBaseDir(projectPath)
 			.setModuleBaseDir(projectPath)
 			.setContents(
@@ -0,0 +1,70 @@
+package org.amshove.natqube.sensor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvDiagnosticReaderShould
+{
+	@Test
+	void parseAllColumns()
+	{
+		var diagnostic = CsvDiagnosticReader.parseLine("Natural-Libraries/LIB/SRC/SUB.NSN;NL001;WARNING;Variable #A is unused;4;2;3;https://example.com/NL001");
+
+		assertThat(diagnostic).isNotNull();
+		assertThat(diagnostic.getRelativePath()).isEqualTo("Natural-Libraries/LIB/SRC/SUB.NSN");
+		assertThat(diagnostic.getId()).isEqualTo("NL001");
+		assertThat(diagnostic.getMessage()).isEqualTo("Variable #A is unused");
+		assertThat(diagnostic.getLine()).isEqualTo(5); // 0 based in the file
+		assertThat(diagnostic.getOffsetInLine()).isEqualTo(2);
+		assertThat(diagnostic.getLength()).isEqualTo(3);
+	}
+
+	@Test
+	void parseLinesWithoutDescriptionUrl()
+	{
+		var diagnostic = CsvDiagnosticReader.parseLine("SUB.NSN;NL001;WARNING;Variable #A is unused;4;2;3");
+
+		assertThat(diagnostic).isNotNull();
+		assertThat(diagnostic.getMessage()).isEqualTo("Variable #A is unused");
+		assertThat(diagnostic.getLength()).isEqualTo(3);
+	}
+
+	@Test
+	void keepSeparatorsWithinTheMessage()
+	{
+		var diagnostic = CsvDiagnosticReader.parseLine("SUB.NSN;NPP001;ERROR;Unexpected token ;;12;0;1;https://example.com/NPP001");
+
+		assertThat(diagnostic).isNotNull();
+		assertThat(diagnostic.getMessage()).isEqualTo("Unexpected token ;");
+		assertThat(diagnostic.getLine()).isEqualTo(13);
+		assertThat(diagnostic.getOffsetInLine()).isZero();
+		assertThat(diagnostic.getLength()).isEqualTo(1);
+	}
+
+	@Test
+	void parseEmptyMessages()
+	{
+		var diagnostic = CsvDiagnosticReader.parseLine("SUB.NSN;NL001;WARNING;;4;2;3");
+
+		assertThat(diagnostic).isNotNull();
+		assertThat(diagnostic.getMessage()).isEmpty();
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings =
+	{
+		"SUB.NSN;NL001;WARNING",
+		"SUB.NSN;NL001;WARNING;4;2;3",
+		"SUB.NSN;NL001;WARNING;Message;A;2;3",
+		"SUB.NSN;NL001;WARNING;Message;4;2;-3",
+		"SUB.NSN;NL001;WARNING;Message;99999999999;2;3",
+		"no separators at all"
+	})
+	void returnNullForMalformedLines(String line)
+	{
+		assertThat(CsvDiagnosticReader.parseLine(line)).isNull();
+	}
+}